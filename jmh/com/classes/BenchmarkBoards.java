@@ -0,0 +1,53 @@
+package com.classes;
+
+import java.util.Random;
+
+/**
+ * BenchmarkBoards makes the boards the benchmarks run on: random walks of fixed lengths from the goal, made with a
+ * fixed seed so every run benchmarks the same boards.
+ */
+final class BenchmarkBoards {
+
+    /* Global Variables: */
+    static final Board GOAL = new Board("123456789ABCDEF ".split(""));
+
+    /**
+     * BenchmarkBoards is never instantiated.
+     */
+    private BenchmarkBoards() {
+    }
+
+    /**
+     * Returns boards made by random walks of the given length from the goal. A walk never undoes its last move, but it
+     * can still come back to an earlier board, so the real solution can be shorter than the walk.
+     */
+    static Board[] randomWalks(final int count, final int length, final Random random) {
+        Board[] boards = new Board[count];
+        for (int i = 0; i < count; i++) {
+            Board board = GOAL;
+            Board.Move last = null;
+            for (int step = 0; step < length; ) {
+                Board.Move move = Board.Move.values()[random.nextInt(4)];
+                if ((last == null || move != last.opposite()) && board.isLegalMove(move)) {
+                    board = board.moveSpaceTile(move);
+                    last = move;
+                    step++;
+                }
+            }
+            boards[i] = board;
+        }
+        return boards;
+    }
+
+    /**
+     * Returns the board a benchmark parameter names: "walk:<length>" for a random walk of that length (seeded by the
+     * length), otherwise the board itself as a line of tiles.
+     */
+    static Board parse(final String board) {
+        if (board.startsWith("walk:")) {
+            int length = Integer.parseInt(board.substring("walk:".length()));
+            return randomWalks(1, length, new Random(length))[0];
+        }
+        return SolveRequest.parseBoard(board);
+    }
+}
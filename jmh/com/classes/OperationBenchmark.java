@@ -0,0 +1,125 @@
+package com.classes;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * OperationBenchmark times the operations every search repeats per node: move generation, the h1/h2 heuristics, state
+ * hashing and the visited set. Each invocation runs over the same 2^16 random-walk boards, so the scores are per
+ * board. Run with -prof gc for the bytes allocated per board.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationBenchmark {
+
+    /* Global Variables: */
+    private static final int BOARDS = 1 << 16;
+
+    private Board[] boards;
+    private Heuristic h2;
+
+    /**
+     * Makes the boards and the h2 heuristic once for the whole run.
+     */
+    @Setup
+    public void setUp() {
+        boards = BenchmarkBoards.randomWalks(BOARDS, 40, new Random(435));
+        h2 = Heuristic.forName("h2", BenchmarkBoards.GOAL);
+    }
+
+    /**
+     * Makes every child of every board.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public void moveSpaceTile(final Blackhole blackhole) {
+        for (Board board : boards) {
+            for (Board.Move move : Board.Move.values()) {
+                Board child = board.moveSpaceTile(move);
+                if (child != null) {
+                    blackhole.consume(child.getSpaceIndex());
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the misplaced tiles of every board.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public void getH1(final Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.getH1(BenchmarkBoards.GOAL));
+        }
+    }
+
+    /**
+     * Sums the Manhattan distances of every board.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public void getH2(final Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.getH2(BenchmarkBoards.GOAL));
+        }
+    }
+
+    /**
+     * Evaluates h2 for every board and updates it for each of its children.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public void h2EvaluateChild(final Blackhole blackhole) {
+        for (Board board : boards) {
+            int parentH = h2.evaluate(board);
+            for (Board.Move move : Board.Move.values()) {
+                Board child = board.moveSpaceTile(move);
+                if (child != null) {
+                    blackhole.consume(h2.evaluateChild(parentH, board, child));
+                }
+            }
+        }
+    }
+
+    /**
+     * Hashes every board by its string, as the searches did before boards were packed into a long.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public void toStringHashCode(final Blackhole blackhole) {
+        for (Board board : boards) {
+            blackhole.consume(board.toString().hashCode());
+        }
+    }
+
+    /**
+     * Adds every board to a new visited set and looks up a board that is usually not in it.
+     */
+    @Benchmark
+    @OperationsPerInvocation(BOARDS)
+    public void visitedSetAddContains(final Blackhole blackhole) {
+        LongHashSet set = new LongHashSet();
+        for (Board board : boards) {
+            blackhole.consume(set.add(board.getTiles()));
+            blackhole.consume(set.contains(board.getTiles() ^ 1));
+        }
+    }
+}
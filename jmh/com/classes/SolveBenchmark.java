@@ -0,0 +1,130 @@
+package com.classes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SolveBenchmark times full solves of the boards in readme.txt and of fixed-seed random walks ("walk:<length>").
+ * Scores are solves per second, and "expanded" beside each is the nodes expanded per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark {
+
+    /* Global Variables: */
+    private static final long SOLVE_TIME_LIMIT = 30000;
+
+    /**
+     * The boards BFS solves.
+     */
+    @State(Scope.Benchmark)
+    public static class UninformedBoard {
+
+        /* Global Variables: */
+        @Param({"1 34527896BCDAEF", "123 56749AB8DEFC", "walk:8", "walk:12"})
+        public String board;
+
+        private Board initial;
+
+        /**
+         * Parses the board once per parameter value.
+         */
+        @Setup
+        public void setUp() {
+            initial = BenchmarkBoards.parse(board);
+        }
+    }
+
+    /**
+     * The boards GBFS and A* solve, and the heuristic they use.
+     */
+    @State(Scope.Benchmark)
+    public static class InformedBoard {
+
+        /* Global Variables: */
+        @Param({"1 3452689A7CDEBF", "12356749AB8 DEFC", "13452789 6BCDAEF", "walk:20", "walk:30", "walk:40"})
+        public String board;
+
+        @Param({"h2"})
+        public String heuristic;
+
+        private Board initial;
+
+        /**
+         * Parses the board once per parameter value.
+         */
+        @Setup
+        public void setUp() {
+            initial = BenchmarkBoards.parse(board);
+        }
+    }
+
+    /**
+     * Counts the nodes the solves expanded, which JMH reports as a rate next to the solves per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Expanded {
+
+        /* Global Variables: */
+        public long expanded;
+
+        /**
+         * Starts each iteration from zero.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            expanded = 0;
+        }
+    }
+
+    /**
+     * Solves the board with BFS.
+     */
+    @Benchmark
+    public int bfs(final UninformedBoard board, final Expanded counter) {
+        return solve(board.initial, "BFS", "", counter);
+    }
+
+    /**
+     * Solves the board with greedy best-first search.
+     */
+    @Benchmark
+    public int gbfs(final InformedBoard board, final Expanded counter) {
+        return solve(board.initial, "GBFS", board.heuristic, counter);
+    }
+
+    /**
+     * Solves the board with A*.
+     */
+    @Benchmark
+    public int aStar(final InformedBoard board, final Expanded counter) {
+        return solve(board.initial, "AStar", board.heuristic, counter);
+    }
+
+    /**
+     * Solves the board with the given method and returns the depth of the solution.
+     */
+    private static int solve(final Board initial, final String method, final String option, final Expanded counter) {
+        SearchContext context = new SearchContext(SOLVE_TIME_LIMIT);
+        Main.solve(initial, method, option, context);
+        counter.expanded += context.getNumExpanded();
+        return context.getDepth();
+    }
+}
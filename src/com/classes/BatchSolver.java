@@ -0,0 +1,132 @@
+package com.classes;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BatchSolver solves many boards in one JVM so JVM start up and JIT warm up are only paid once. Requests are read one
+ * per line (see SolveRequest) from a file or standard input and solved in parallel on a ForkJoinPool. Each result is
+ * written as one line of JSON as soon as its solve finishes, so the output is in finishing order and the "id" field
+ * (the request's line number among the requests) matches results back to requests.
+ *
+ * Usage: java com.classes.Main --batch [file | -] [time limit per board in ms]
+ */
+class BatchSolver {
+
+    /* Global Variables: */
+    private final ForkJoinPool pool;
+    private final long timeLimit;
+    private final PrintStream out;
+
+    /**
+     * BatchSolver constructor, takes the number of boards to solve at once, the time limit per board in milliseconds
+     * (0 keeps each search method's own limit) and where to write the results.
+     */
+    BatchSolver(final int threads, final long timeLimit, final PrintStream out) {
+        this.pool = new ForkJoinPool(threads);
+        this.timeLimit = timeLimit;
+        this.out = out;
+    }
+
+    /**
+     * Reads every request from the reader, solves them all and returns once every result has been written. Blank lines
+     * and lines starting with # are skipped.
+     */
+    void run(final BufferedReader in) throws IOException, InterruptedException {
+        int id = 0;
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final int requestId = ++id;
+            final String requestLine = line;
+            pool.execute(() -> solveLine(requestId, requestLine));
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Solves one request line and writes its result.
+     */
+    private void solveLine(final int id, final String line) {
+        String json;
+        long startTime = System.nanoTime();
+        try {
+            SolveRequest request = SolveRequest.parse(line);
+            SearchContext context = Main.newContext(timeLimit);
+            request.solve(context);
+            json = toJson(id, request, context, (System.nanoTime() - startTime) / 1000000);
+        } catch (RuntimeException e) {
+            json = "{\"id\":" + id + ",\"line\":" + quote(line) + ",\"error\":" + quote(String.valueOf(e.getMessage()))
+                    + "}";
+        }
+        synchronized (out) {
+            out.println(json);
+            out.flush();
+        }
+    }
+
+    /**
+     * Returns the result of a solved request as one line of JSON.
+     */
+    static String toJson(final int id, final SolveRequest request, final SearchContext context, final long millis) {
+        return "{\"id\":" + id
+                + ",\"board\":" + quote(request.getBoardText())
+                + ",\"method\":" + quote(request.getSearchMethod())
+                + ",\"option\":" + quote(request.getSearchOption())
+                + ",\"solved\":" + context.isSolutionFound()
+                + ",\"depth\":" + context.getDepth()
+                + ",\"created\":" + context.getNumCreated()
+                + ",\"expanded\":" + context.getNumExpanded()
+                + ",\"maxFringe\":" + context.getMaxFringe()
+                + ",\"millis\":" + millis
+                + (context.getPath() == null ? "" : ",\"path\":" + quote(context.getPath()))
+                + (context.getSuboptimalityBound() == 0 ? "" : ",\"bound\":" + context.getSuboptimalityBound())
+                + "}";
+    }
+
+    /**
+     * Returns the given text as a quoted JSON string.
+     */
+    static String quote(final String text) {
+        StringBuilder sb = new StringBuilder(text.length() + 2).append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Batch mode entry point, called by Main with its arguments (starting with --batch).
+     */
+    static void main(final String[] args) {
+        String source = args.length > 1 ? args[1] : "-";
+        long timeLimit = args.length > 2 ? Long.parseLong(args[2]) : 0;
+
+        BatchSolver solver = new BatchSolver(Main.THREADS, timeLimit, System.out);
+        try (BufferedReader in = "-".equals(source)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : new BufferedReader(new FileReader(source, StandardCharsets.UTF_8))) {
+            solver.run(in);
+        } catch (IOException e) {
+            System.err.println("Can't read " + source + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.classes;
+
+import java.util.Arrays;
+
+/**
+ * BeamSearch holds beam search and beam-stack search (Zhou and Hansen, 2005), which bound the memory a solve can use.
+ * Both go one layer at a time like BFS, but keep only the best w boards (the beam width) of each layer, so no layer
+ * holds more than w boards and no more than w * 4 children are ever waiting to be picked from. Every board in a layer
+ * is the same number of moves from the start, so the best by f = g + h are the best by h.
+ *
+ * Beam search stops at its first solution, or fails if a layer comes out empty. Beam-stack search then backtracks:
+ * for each layer it keeps the range of children admitted to the next one, from where the last pass started to the
+ * first child that was pruned. Each pass searches from the start again, and the next pass moves the deepest range on
+ * to the children that were pruned, dropping any of f at least the length of the best solution so far. It stops when
+ * every range has been searched, and then (with an admissible heuristic: lc, wd or h3) its solution is the shortest.
+ * Children are ordered by f and then by their packed board, which doesn't depend on what the earlier layers admitted,
+ * so a range picks out the same children on every pass and never admits a child twice.
+ *
+ * The search option is "<width>" with h2, or "<heuristic>:<width>" (e.g. "wd:5000"); the width defaults to 1000.
+ */
+class BeamSearch {
+
+    /* Global Variables: */
+    private static final int DEFAULT_WIDTH = 1000;
+    private static final long FIRST = Long.MIN_VALUE;
+
+    private final Board goal;
+    private final BoardShape shape;
+    private final Heuristic heuristic;
+    private final SearchContext context;
+    private final int width;
+    private long[] childTiles;
+    private int[] childParents;
+    private int[] childHeuristics;
+    private Board.Move[] childMoves;
+    private long[] keys;
+    private long[] group;
+    private int[] rangeStartCosts = new int[64];
+    private long[] rangeStartTiles = new long[64];
+    private int[] rangeEndCosts = new int[64];
+    private long[] rangeEndTiles = new long[64];
+    private int ranges;
+    private int bestCost = Integer.MAX_VALUE;
+
+    /**
+     * BeamSearch constructor, takes the goal, the heuristic, the beam width and the context of the solve.
+     */
+    private BeamSearch(final Board goal, final Heuristic heuristic, final int width, final SearchContext context) {
+        this.goal = goal;
+        this.shape = goal.getShape();
+        this.heuristic = heuristic;
+        this.width = width;
+        this.context = context;
+        int children = width * Board.Move.values().length;
+        childTiles = new long[children];
+        childParents = new int[children];
+        childHeuristics = new int[children];
+        childMoves = new Board.Move[children];
+        keys = new long[children];
+        group = new long[children];
+    }
+
+    /**
+     * Beam search: one pass that keeps the best w boards of each layer and stops at the first solution.
+     */
+    static void beamSearch(final Board initial, final Board goal, final String option, final SearchContext context) {
+        context.start(60000, false);
+        BeamSearch search = new BeamSearch(goal, Heuristic.forName(WeightedSearch.heuristicOf(option), goal),
+                                           widthOf(option), context);
+        search.ranges = 1;
+        search.setRange(0, 0, FIRST, Integer.MAX_VALUE, FIRST);
+        search.pass(initial);
+    }
+
+    /**
+     * Beam-stack search: beam search passes, each moving the deepest range of admitted children on to what the last
+     * pass pruned, until every range has been searched or the time runs out. The context always holds the best
+     * solution found so far.
+     */
+    static void beamStackSearch(final Board initial, final Board goal, final String option,
+                                final SearchContext context) {
+        context.start(60000, false);
+        BeamSearch search = new BeamSearch(goal, Heuristic.forName(WeightedSearch.heuristicOf(option), goal),
+                                           widthOf(option), context);
+        search.ranges = 1;
+        search.setRange(0, 0, FIRST, Integer.MAX_VALUE, FIRST);
+        while (search.pass(initial)) {
+            // A range ending at or past (best length, first board) has nothing pruned that could still be shorter.
+            while (search.ranges > 0 && search.rangeEndCosts[search.ranges - 1] >= search.bestCost) {
+                search.ranges--;
+            }
+            if (search.ranges == 0) {
+                return;
+            }
+            int last = search.ranges - 1;
+            search.setRange(last, search.rangeEndCosts[last], search.rangeEndTiles[last], search.bestCost, FIRST);
+        }
+    }
+
+    /**
+     * One pass from the start, admitting to each layer only the children in that layer's range and then the best w of
+     * them. A solution shorter than the best so far is recorded. Returns false if the time ran out first.
+     */
+    private boolean pass(final Board initial) {
+        NodeArena arena = new NodeArena();
+        LongHashSet visited = new LongHashSet();
+        int[] layer = {arena.addRoot(initial.getTiles(), heuristic.evaluate(initial))};
+        int[] next = new int[width];
+        visited.add(initial.getTiles());
+        context.updateVisited(visited.size());
+
+        for (int depth = 0; layer.length > 0; depth++) {
+            if (depth == ranges) {
+                setRange(ranges++, 0, FIRST, bestCost, FIRST);
+            }
+            LongHashSet made = new LongHashSet(layer.length * 3, false);
+            int admitted = 0;
+            for (int i = 0; i < layer.length; i++) {
+                if (context.shouldStop()) {
+                    return false;
+                }
+                context.updateFringe(layer.length - i + admitted);
+                int node = layer[i];
+                long tiles = arena.getState(node);
+                context.addExpanded();
+                if (tiles == goal.getTiles()) {
+                    bestCost = depth;
+                    context.solved(depth);
+                    context.setPath(arena.getPath(node));
+                    ranges = Math.min(ranges, depth);
+                    return true;
+                }
+
+                int space = Board.spaceIndexOf(tiles);
+                Board.Move[] moves = shape.movesFrom(space);
+                int[] targets = shape.targetsFrom(space);
+                for (int m = 0; m < moves.length; m++) {
+                    Board.Move move = moves[m];
+                    int target = targets[m];
+                    if (arena.undoesLastMove(node, move)) {
+                        continue;
+                    }
+                    long child = Board.swapWithSpace(tiles, space, target);
+                    if (visited.contains(child) || !made.add(child)) {
+                        context.addDuplicate();
+                        continue;
+                    }
+                    context.addCreated();
+                    int childH = heuristic.evaluateChild(arena.getHeuristic(node), tiles, space, target);
+                    int f = depth + 1 + childH;
+                    if (f < bestCost && !before(f, child, rangeStartCosts[depth], rangeStartTiles[depth])
+                        && before(f, child, rangeEndCosts[depth], rangeEndTiles[depth])) {
+                        childTiles[admitted] = child;
+                        childParents[admitted] = node;
+                        childHeuristics[admitted] = childH;
+                        childMoves[admitted] = move;
+                        keys[admitted] = key(f, admitted);
+                        admitted++;
+                    }
+                }
+            }
+
+            int cutCost = Integer.MAX_VALUE;
+            long cutTiles = FIRST;
+            if (admitted > width) {
+                // Sorted by f, then the boards of the f the width falls in are sorted to find the first one pruned.
+                Arrays.sort(keys, 0, admitted);
+                cutCost = (int) (keys[width] >>> 32);
+                int from = width;
+                while (from > 0 && (int) (keys[from - 1] >>> 32) == cutCost) {
+                    from--;
+                }
+                int to = width;
+                while (to < admitted && (int) (keys[to] >>> 32) == cutCost) {
+                    to++;
+                }
+                for (int i = from; i < to; i++) {
+                    group[i - from] = childTiles[(int) keys[i]];
+                }
+                Arrays.sort(group, 0, to - from);
+                cutTiles = group[width - from];
+                rangeEndCosts[depth] = cutCost;
+                rangeEndTiles[depth] = cutTiles;
+            }
+            int size = 0;
+            for (int i = 0; i < admitted; i++) {
+                int child = (int) keys[i];
+                if (before((int) (keys[i] >>> 32), childTiles[child], cutCost, cutTiles)) {
+                    visited.add(childTiles[child]);
+                    next[size++] = arena.add(childTiles[child], childParents[child], depth + 1,
+                                             childHeuristics[child], childMoves[child]);
+                }
+            }
+            admitted = size;
+            layer = Arrays.copyOf(next, admitted);
+            context.updateVisited(visited.size());
+            if (admitted == 0) {
+                // Ranges past this layer were left by an earlier pass and no longer lead anywhere.
+                ranges = Math.min(ranges, depth + 1);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sets the range of children the given layer admits, from the first (f, board) in it to the first past it.
+     */
+    private void setRange(final int depth, final int startCost, final long startTiles, final int endCost,
+                          final long endTiles) {
+        if (depth == rangeStartCosts.length) {
+            rangeStartCosts = Arrays.copyOf(rangeStartCosts, depth << 1);
+            rangeStartTiles = Arrays.copyOf(rangeStartTiles, depth << 1);
+            rangeEndCosts = Arrays.copyOf(rangeEndCosts, depth << 1);
+            rangeEndTiles = Arrays.copyOf(rangeEndTiles, depth << 1);
+        }
+        rangeStartCosts[depth] = startCost;
+        rangeStartTiles[depth] = startTiles;
+        rangeEndCosts[depth] = endCost;
+        rangeEndTiles[depth] = endTiles;
+    }
+
+    /**
+     * Returns whether the child of the given f and packed board comes before the other in the order children are
+     * admitted by: f, then the packed board.
+     */
+    private static boolean before(final int f, final long tiles, final int otherF, final long otherTiles) {
+        return f < otherF || (f == otherF && tiles < otherTiles);
+    }
+
+    /**
+     * Returns the key the children of a layer are sorted by: f, then their index in the layer's child arrays.
+     */
+    private static long key(final int f, final int child) {
+        return ((long) f << 32) | child;
+    }
+
+    /**
+     * Returns the beam width in the search option. Throws an IllegalArgumentException if it is under 1.
+     */
+    private static int widthOf(final String option) {
+        String width = option.substring(option.indexOf(':') + 1);
+        if (width.isEmpty() || !Character.isDigit(width.charAt(0))) {
+            return DEFAULT_WIDTH;
+        }
+        int parsed = Integer.parseInt(width);
+        if (parsed < 1) {
+            throw new IllegalArgumentException("The beam width must be at least 1: " + option);
+        }
+        return parsed;
+    }
+}
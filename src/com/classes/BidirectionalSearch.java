@@ -0,0 +1,317 @@
+package com.classes;
+
+import java.util.Arrays;
+
+/**
+ * BidirectionalSearch runs one search forwards from the initial board and one backwards from the goal at the same
+ * time, and stops when they meet. Each side only has to go about half the solution depth, which for a branching factor
+ * near 3 means searching roughly the square root of the nodes a one-sided search would.
+ *
+ * Every reached board is stored with its depth from its own side and the move the space made to reach it, so the full
+ * move sequence is rebuilt from the meeting board by walking each side's moves back to its root.
+ */
+class BidirectionalSearch {
+
+    /* Global Variables: */
+    private static final int FORWARD = 0;
+    private static final int BACKWARD = 1;
+    private static final Board.Move[] MOVES = Board.Move.values();
+
+    /**
+     * BidirectionalSearch is only a holder for its static search methods.
+     */
+    private BidirectionalSearch() {
+    }
+
+    /**
+     * Bidirectional breadth-first search. Whole layers are expanded at a time, always on the side with the smaller
+     * frontier. Both sides share one visited map, whose entries also say which side reached the board, so a child that
+     * the other side already reached is where the searches meet. The layer that first meets is finished so the
+     * shortest of its meetings is kept, which makes the solution optimal.
+     */
+    static void breadthFirst(final Board initial, final Board goal, final SearchContext context) {
+        context.start(120000, false);
+        BoardShape shape = initial.getShape();
+        LongIntHashMap visited = new LongIntHashMap();
+        visited.put(initial.getTiles(), entry(0, FORWARD, 0));
+        if (initial.getTiles() == goal.getTiles()) {
+            context.addExpanded();
+            context.solved(0);
+            context.setPath("");
+            return;
+        }
+        visited.put(goal.getTiles(), entry(0, BACKWARD, 0));
+        context.addCreated();
+        context.updateVisited(visited.size());
+
+        long[][] frontiers = {{initial.getTiles()}, {goal.getTiles()}};
+        int[] frontierSizes = {1, 1};
+        int[] depths = {0, 0};
+
+        while (frontierSizes[FORWARD] > 0 && frontierSizes[BACKWARD] > 0) {
+            if (context.shouldStopNow()) {
+                return;
+            }
+            context.updateFringe(frontierSizes[FORWARD] + frontierSizes[BACKWARD]);
+            int side = frontierSizes[FORWARD] <= frontierSizes[BACKWARD] ? FORWARD : BACKWARD;
+            int other = 1 - side;
+
+            long[] next = new long[Math.max(16, frontierSizes[side] * 2)];
+            int nextSize = 0;
+            int best = Integer.MAX_VALUE;
+            long bestParent = 0;
+            long bestChild = 0;
+            int bestMove = 0;
+
+            for (int i = 0; i < frontierSizes[side]; i++) {
+                long tiles = frontiers[side][i];
+                int space = Board.spaceIndexOf(tiles);
+                context.addExpanded();
+                if (context.shouldStop()) {
+                    return;
+                }
+                Board.Move[] moves = shape.movesFrom(space);
+                int[] targets = shape.targetsFrom(space);
+                for (int m = 0; m < moves.length; m++) {
+                    Board.Move move = moves[m];
+                    int target = targets[m];
+                    long child = Board.swapWithSpace(tiles, space, target);
+                    int found = visited.get(child, -1);
+                    if (found < 0) {
+                        context.addCreated();
+                        visited.put(child, entry(depths[side] + 1, side, move.ordinal() + 1));
+                        if (nextSize == next.length) {
+                            next = Arrays.copyOf(next, nextSize * 2);
+                        }
+                        next[nextSize++] = child;
+                    } else if (sideOf(found) == other && depths[side] + 1 + depthOf(found) < best) {
+                        best = depths[side] + 1 + depthOf(found);
+                        bestParent = tiles;
+                        bestChild = child;
+                        bestMove = move.ordinal();
+                    } else {
+                        context.addDuplicate();
+                    }
+                }
+                context.updateVisited(visited.size());
+            }
+
+            if (best != Integer.MAX_VALUE) {
+                String path = joinPaths(shape, visited, side, bestParent, MOVES[bestMove], bestChild);
+                context.solved(path.length());
+                context.setPath(path);
+                return;
+            }
+            frontiers[side] = next;
+            frontierSizes[side] = nextSize;
+            depths[side]++;
+        }
+    }
+
+    /**
+     * Bidirectional heuristic search using the MM algorithm (Holte et al., 2016). Each side has its own open list
+     * ordered by max(f, 2g), where the forward side estimates the distance to the goal and the backward side the
+     * distance back to the initial board with the same heuristic. The side whose best priority is smaller is expanded.
+     * Each side's nodes are kept in a NodeArena with max(h, g) as their heuristic value, so an open list ordered by
+     * f = g + that value orders them by max(f, 2g).
+     * Every child that the other side has reached gives a solution of cost g + 1 + g', and the search stops once the
+     * best solution found is no more than the smaller of the two best priorities, when no cheaper meeting can remain.
+     * That rule only holds if neither side's heuristic overestimates, so h1 and h2 leave out the space here and the
+     * heuristic defaults to walking distance (see Heuristic.admissibleForName). The backward side's heuristic keeps
+     * nothing built for the initial board (see Heuristic.admissibleTowards), so h3 can't be used.
+     */
+    static void meetInTheMiddle(final Board initial, final Board goal, final String heuristic,
+                                final SearchContext context) {
+        context.start(60000, false);
+        BoardShape shape = initial.getShape();
+        Heuristic toInitial = Heuristic.admissibleTowards(heuristic, initial);
+        Heuristic[] heuristics = {Heuristic.admissibleForName(heuristic, goal), toInitial};
+        LongIntHashMap[] reached = {new LongIntHashMap(), new LongIntHashMap()};
+        NodeArena[] arenas = {new NodeArena(), new NodeArena()};
+        OpenList[] open = {new BucketOpenList(arenas[FORWARD], true), new BucketOpenList(arenas[BACKWARD], true)};
+        Board[] roots = {initial, goal};
+        for (int side = FORWARD; side <= BACKWARD; side++) {
+            reached[side].put(roots[side].getTiles(), entry(0, side, 0));
+            open[side].add(arenas[side].addRoot(roots[side].getTiles(), heuristics[side].evaluate(roots[side])));
+        }
+        context.addCreated();
+        context.updateVisited(reached[FORWARD].size() + reached[BACKWARD].size());
+
+        int best = initial.getTiles() == goal.getTiles() ? 0 : Integer.MAX_VALUE;
+        long bestParent = 0;
+        long bestChild = 0;
+        int bestSide = FORWARD;
+        int bestMove = -1;
+
+        while (true) {
+            if (context.shouldStop()) {
+                return;
+            }
+            int forward = peekLive(open[FORWARD], arenas[FORWARD], reached[FORWARD]);
+            int backward = peekLive(open[BACKWARD], arenas[BACKWARD], reached[BACKWARD]);
+            if (forward < 0 || backward < 0) {
+                break;
+            }
+            int forwardPriority = arenas[FORWARD].getDepth(forward) + arenas[FORWARD].getHeuristic(forward);
+            int backwardPriority = arenas[BACKWARD].getDepth(backward) + arenas[BACKWARD].getHeuristic(backward);
+            int side = forwardPriority <= backwardPriority ? FORWARD : BACKWARD;
+            if (best <= Math.min(forwardPriority, backwardPriority)) {
+                break;
+            }
+            context.updateFringe(open[FORWARD].size() + open[BACKWARD].size());
+
+            int other = 1 - side;
+            NodeArena arena = arenas[side];
+            int node = open[side].remove();
+            context.addExpanded();
+            long tiles = arena.getState(node);
+            int space = Board.spaceIndexOf(tiles);
+            int g = arena.getDepth(node) + 1;
+            Board.Move[] moves = shape.movesFrom(space);
+            int[] targets = shape.targetsFrom(space);
+            for (int m = 0; m < moves.length; m++) {
+                Board.Move move = moves[m];
+                int target = targets[m];
+                if (arena.undoesLastMove(node, move)) {
+                    continue;
+                }
+                long child = Board.swapWithSpace(tiles, space, target);
+                int found = reached[side].get(child, -1);
+                if (found >= 0 && depthOf(found) <= g) {
+                    context.addDuplicate();
+                    continue;
+                }
+                context.addCreated();
+                reached[side].put(child, entry(g, side, move.ordinal() + 1));
+                int h = heuristics[side].evaluate(child);
+                open[side].add(arena.add(child, node, g, Math.max(h, g), move));
+
+                int otherFound = reached[other].get(child, -1);
+                if (otherFound >= 0 && g + depthOf(otherFound) < best) {
+                    best = g + depthOf(otherFound);
+                    bestParent = tiles;
+                    bestChild = child;
+                    bestSide = side;
+                    bestMove = move.ordinal();
+                }
+            }
+            context.updateVisited(reached[FORWARD].size() + reached[BACKWARD].size());
+        }
+
+        if (best == 0) {
+            context.solved(0);
+            context.setPath("");
+        } else if (best != Integer.MAX_VALUE) {
+            // The child was reached by bestSide, so the other side's walk starts from its entry in the other map.
+            String path = joinPaths(shape, reached[1 - bestSide], bestSide, bestParent, MOVES[bestMove], bestChild,
+                                    reached[bestSide]);
+            context.solved(path.length());
+            context.setPath(path);
+        }
+    }
+
+    /**
+     * Returns the open list's best node, first dropping nodes whose board has since been reached in fewer moves.
+     * Returns -1 if the open list is empty.
+     */
+    private static int peekLive(final OpenList open, final NodeArena arena, final LongIntHashMap reached) {
+        while (!open.isEmpty()) {
+            int node = open.peek();
+            if (arena.getDepth(node) <= depthOf(reached.get(arena.getState(node), 0))) {
+                return node;
+            }
+            open.remove();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the full forward move sequence when the given side, expanding parent, made the given move to reach child,
+     * which the other side had already reached. Both sides' entries are in the one shared map.
+     */
+    private static String joinPaths(final BoardShape shape, final LongIntHashMap visited, final int side,
+                                    final long parent, final Board.Move move, final long child) {
+        return joinPaths(shape, visited, side, parent, move, child, visited);
+    }
+
+    /**
+     * Returns the full forward move sequence when the given side, expanding parent, made the given move to reach child.
+     * otherMap holds the other side's entry for child and sideMap holds the given side's entry for parent.
+     */
+    private static String joinPaths(final BoardShape shape, final LongIntHashMap otherMap, final int side,
+                                    final long parent, final Board.Move move, final long child,
+                                    final LongIntHashMap sideMap) {
+        String parentPath = walkBack(shape, sideMap, parent);
+        String childPath = walkBack(shape, otherMap, child);
+        if (side == FORWARD) {
+            // start .. parent, then the move, then child .. goal (the backward walk reversed and undone).
+            return parentPath + move + invert(reverse(childPath));
+        }
+        // start .. child is the forward walk to child; then child -> parent undoes the backward move, then parent ..
+        // goal undoes the backward walk to parent.
+        return childPath + move.opposite() + invert(reverse(parentPath));
+    }
+
+    /**
+     * Returns the moves from a side's root to the given board by following the stored moves back to the root.
+     */
+    private static String walkBack(final BoardShape shape, final LongIntHashMap map, final long tiles) {
+        StringBuilder moves = new StringBuilder();
+        long current = tiles;
+        int value = map.get(current, 0);
+        while (moveOf(value) != 0) {
+            Board.Move move = MOVES[moveOf(value) - 1];
+            moves.append(move);
+            int space = Board.spaceIndexOf(current);
+            current = Board.swapWithSpace(current, space, shape.moveTarget(space, move.opposite()));
+            value = map.get(current, 0);
+        }
+        return moves.reverse().toString();
+    }
+
+    /**
+     * Returns the moves in the reverse order.
+     */
+    private static String reverse(final String moves) {
+        return new StringBuilder(moves).reverse().toString();
+    }
+
+    /**
+     * Returns each move replaced by its opposite.
+     */
+    private static String invert(final String moves) {
+        StringBuilder inverted = new StringBuilder(moves.length());
+        for (int i = 0; i < moves.length(); i++) {
+            inverted.append(Board.Move.valueOf(String.valueOf(moves.charAt(i))).opposite());
+        }
+        return inverted.toString();
+    }
+
+    /**
+     * Packs a depth, the side that reached a board and the move it got there with (1-4, or 0 for a root).
+     */
+    private static int entry(final int depth, final int side, final int move) {
+        return (depth << 4) | (side << 3) | move;
+    }
+
+    /**
+     * Returns the depth from a packed entry.
+     */
+    private static int depthOf(final int entry) {
+        return entry >>> 4;
+    }
+
+    /**
+     * Returns the side from a packed entry.
+     */
+    private static int sideOf(final int entry) {
+        return (entry >>> 3) & 1;
+    }
+
+    /**
+     * Returns the move (1-4, or 0 for a root) from a packed entry.
+     */
+    private static int moveOf(final int entry) {
+        return entry & 0x7;
+    }
+}
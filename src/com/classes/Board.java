@@ -1,128 +1,180 @@
 package com.classes;
 
 import java.util.Arrays;
-import java.lang.Math;
 
 /**
  * Board class encapsulates board state and methods related to chnaging information about the board state.
+ *
+ * A board of up to 16 cells (such as 3x3 or the standard 4x4) is packed into a single long, one 4-bit nibble per cell
+ * in row-major order (cell 0 in the lowest nibble). Larger boards are packed into an array of longs, one byte per cell
+ * and eight cells per long. Either way the space is stored as 0 and the tiles as their values, written in input and
+ * output as base 36 digits (1-9, then A-Z). The index of the space is kept alongside the packed tiles so moves never
+ * have to rescan the board.
  */
 public class Board {
 
     /* Global Variables: */
-    private String[] boardAsLine;
-    private String[][] boardAsGrid;
-    private int spaceRow;
-    private int spaceCol;
+    private static final long NIBBLE_MASK = 0xFL;
+    private static final long BYTE_MASK = 0xFFL;
+
+    private final BoardShape shape;
+    private final long tiles;
+    private final long[] words;
+    private final int spaceIndex;
+    private volatile int[] positions;
 
     /**
      * A simple enumeration class to represent the possible moves any given tile could make within the board.
      */
     public enum Move {
-        R, D, L, U
+        R, D, L, U;
+
+        /**
+         * Returns the move that undoes this one.
+         */
+        Move opposite() {
+            return values()[(ordinal() + 2) % 4];
+        }
     }
 
     /**
-     * Board constructor if board is given as 1D array.
+     * Board constructor if a square board is given as 1D array of single character strings.
      */
     Board(final String[] inputArray) {
-        boardAsLine = inputArray;
-        boardAsGrid = lineToGrid(inputArray);
-        int[] spaceCoordinates = getSpaceCoordinates();
-        spaceRow = spaceCoordinates[0];
-        spaceCol = spaceCoordinates[1];
+        this(BoardShape.square(inputArray.length), inputArray);
     }
 
     /**
-     * Board constructor if board is given as 2D array.
+     * Board constructor if a board of the given shape is given as 1D array of single character strings.
      */
-    private Board(final String[][] inputGrid) {
-        boardAsGrid = inputGrid;
-        boardAsLine = gridToLine(inputGrid);
-        int[] spaceCoordinates = getSpaceCoordinates();
-        spaceRow = spaceCoordinates[0];
-        spaceCol = spaceCoordinates[1];
+    Board(final BoardShape shape, final String[] inputArray) {
+        long packed = 0L;
+        long[] wide = shape.isPacked() ? null : new long[(shape.getCells() + 7) >>> 3];
+        int space = 0;
+        for (int i = 0; i < shape.getCells(); i++) {
+            int tile = " ".equals(inputArray[i]) ? 0 : Character.digit(inputArray[i].charAt(0), 36);
+            if (tile == 0) {
+                space = i;
+            }
+            if (wide == null) {
+                packed |= ((long) tile) << (i << 2);
+            } else {
+                wide[i >>> 3] |= ((long) tile) << ((i & 7) << 3);
+            }
+        }
+        this.shape = shape;
+        this.tiles = packed;
+        this.words = wide;
+        this.spaceIndex = space;
     }
 
     /**
-     * Returns the board state represented as a 1D array.
+     * Board constructor if a board of up to 16 cells is already given in its packed form.
      */
-    String[] getBoardAsLine() {
-        return boardAsLine;
+    Board(final BoardShape shape, final long tiles, final int spaceIndex) {
+        this.shape = shape;
+        this.tiles = tiles;
+        this.words = null;
+        this.spaceIndex = spaceIndex;
     }
 
     /**
-     * Returns the board state represented as a 2D array.
+     * Board constructor if a board of over 16 cells is already given in its packed form. The array is kept, not
+     * copied.
      */
-    private String[][] getBoardAsGrid() {
-        return boardAsGrid;
+    private Board(final BoardShape shape, final long[] words, final int spaceIndex) {
+        this.shape = shape;
+        this.tiles = 0L;
+        this.words = words;
+        this.spaceIndex = spaceIndex;
     }
 
     /**
-     * Returns a new board object where the space tile has been swapped with another tile based on the input move.
-     * Returns null if the move trying to be made isn't a legal move.
+     * Returns the shape of the board.
      */
-    Board moveSpaceTile(Move move) {
-        String[][] newGrid = deepCopy(boardAsGrid);
+    BoardShape getShape() {
+        return shape;
+    }
 
-        if (!isLegalMove(move)) {
-            return null;
+    /**
+     * Returns the packed representation of the board. Throws an IllegalStateException if the board has over 16 cells.
+     */
+    long getTiles() {
+        if (words != null) {
+            throw new IllegalStateException(shape + " boards don't fit in a long");
         }
+        return tiles;
+    }
 
-        switch (move) {
-            case R:
-                String tempR = newGrid[spaceRow][spaceCol+1];
-                newGrid[spaceRow][spaceCol+1] = " ";
-                newGrid[spaceRow][spaceCol] = tempR;
-                break;
-            case D:
-                String tempD = newGrid[spaceRow+1][spaceCol];
-                newGrid[spaceRow+1][spaceCol] = " ";
-                newGrid[spaceRow][spaceCol] = tempD;
-                break;
-            case L:
-                String tempL = newGrid[spaceRow][spaceCol -1];
-                newGrid[spaceRow][spaceCol-1] = " ";
-                newGrid[spaceRow][spaceCol] = tempL;
-                break;
-            case U:
-                String tempU = newGrid[spaceRow -1][spaceCol];
-                newGrid[spaceRow-1][spaceCol] = " ";
-                newGrid[spaceRow][spaceCol] = tempU;
-                break;
+    /**
+     * Returns a copy of the packed representation of a board of over 16 cells, one byte per cell. Throws an
+     * IllegalStateException if the board has 16 cells or fewer.
+     */
+    long[] getWords() {
+        if (words == null) {
+            throw new IllegalStateException(shape + " boards are packed in a single long");
         }
+        return words.clone();
+    }
 
-        return new Board(newGrid);
+    /**
+     * Returns the tile at the given index (row-major), 0 for the space.
+     */
+    int getTile(final int index) {
+        return words == null ? tileAt(tiles, index) : tileAt(words, index);
     }
 
     /**
-     * Returns the coordinates of the space character inside of the 4x4 representation of the board.
+     * Returns the index (row-major) of the space character.
      */
-    int[] getSpaceCoordinates() {
-        int[] coordinates = new int[2];
-
-        for (int i = 0 ; i < boardAsGrid.length; i++) {
-            for (int j = 0; j < boardAsGrid[i].length; j++) {
-                if (boardAsGrid[i][j].equals(" ")) {
-                    coordinates[0] = i;
-                    coordinates[1] = j;
-                }
-            }
+    int getSpaceIndex() {
+        return spaceIndex;
+    }
+
+    /**
+     * Returns the board state represented as a 1D array. Only meant for printing, never for searching.
+     */
+    String[] getBoardAsLine() {
+        String[] line = new String[shape.getCells()];
+        for (int i = 0; i < line.length; i++) {
+            int tile = getTile(i);
+            line[i] = tile == 0 ? " " : String.valueOf(Character.toUpperCase(Character.forDigit(tile, 36)));
+        }
+        return line;
+    }
+
+    /**
+     * Returns a new board object where the space tile has been swapped with another tile based on the input move.
+     * Returns null if the move trying to be made isn't a legal move.
+     */
+    Board moveSpaceTile(Move move) {
+        int target = shape.moveTarget(spaceIndex, move);
+        if (target < 0) {
+            return null;
+        }
+        if (words == null) {
+            return new Board(shape, swapWithSpace(tiles, spaceIndex, target), target);
         }
+        long[] moved = words.clone();
+        swapWithSpace(moved, spaceIndex, target);
+        return new Board(shape, moved, target);
+    }
 
-        return coordinates;
+    /**
+     * Returns the coordinates (row, column) of the space character inside of the grid representation of the board.
+     */
+    int[] getSpaceCoordinates() {
+        return new int[] {shape.rowOf(spaceIndex), shape.colOf(spaceIndex)};
     }
 
     /**
      * Returns the number of misplaced tile on the board relative to the goal state that the board is solvable to.
      */
-    int getH1(final String[] goal) {
+    int getH1(final Board goal) {
         int num = 0;
-        String[][] goalGrid = lineToGrid(goal);
-        for (int i = 0; i < goalGrid.length; i++) {
-            for (int j = 0; j < goalGrid[i].length; j++) {
-                if (!(boardAsGrid[i][j].equals(goalGrid[i][j]))) {
-                    num++;
-                }
+        for (int i = 0; i < shape.getCells(); i++) {
+            if (getTile(i) != goal.getTile(i)) {
+                num++;
             }
         }
         return num;
@@ -132,119 +184,109 @@ public class Board {
      * Returns the sum of each tile's manhattan distances from its current position to the position it should be in to
      * match the goal state.
      */
-    int getH2(final String[] goal) {
+    int getH2(final Board goal) {
+        int[] goalIndex = goal.getPositions();
         int totDist = 0;
-        String[][] goalGrid = lineToGrid(goal);
-        for (int i = 0; i < goalGrid.length; i++) {
-            for (int j = 0; j < goalGrid[i].length; j++) {
-                String tile = goalGrid[i][j];
-                for (int k = 0; k < boardAsGrid.length; k++) {
-                    for (int l = 0; l < boardAsGrid[i].length; l++) {
-                        if (tile.equals(boardAsGrid[k][l])) {
-                            int tileDist = Math.abs(i-k)+Math.abs(j-l);
-                            totDist += tileDist;
-                            break;
-                        }
-                    }
-                }
-            }
+        for (int i = 0; i < goalIndex.length; i++) {
+            totDist += shape.distance(i, goalIndex[getTile(i)]);
         }
         return totDist;
     }
 
     /**
-     * Returns whether a given move with the current board state is legal, or still within the 4x4 grid of the board.
+     * Returns the index (row-major) of every tile, indexed by tile with the space as 0. Built on first use and kept,
+     * so a goal board only works it out once. The array is shared, so it must not be changed.
      */
-    boolean isLegalMove(final Move move) {
-        int row = spaceRow;
-        int col = spaceCol;
-
-        switch (move) {
-            case R:
-                col++;
-                break;
-            case D:
-                row++;
-                break;
-            case L:
-                col--;
-                break;
-            case U:
-                row--;
-                break;
+    int[] getPositions() {
+        int[] cached = positions;
+        if (cached == null) {
+            // Racing threads may each build the table, but they build the same one, and the volatile write only
+            // publishes it once it is filled in, so no thread can see a partly built table.
+            cached = new int[shape.getCells()];
+            for (int i = 0; i < cached.length; i++) {
+                cached[getTile(i)] = i;
+            }
+            positions = cached;
         }
-
-        return (row >= 0 && row <= 3 && col >= 0 && col <= 3);
+        return cached;
     }
 
     /**
-     * Returns the 1D array representation of the board as a string.
+     * Returns whether a given move with the current board state is legal, or still within the grid of the board.
      */
-    @Override
-    public String toString() {
-        return Arrays.toString(boardAsLine);
+    boolean isLegalMove(final Move move) {
+        return shape.moveTarget(spaceIndex, move) >= 0;
     }
 
     /**
-     * Determines whether the given board object is equivalent to this one by matching every tile.
+     * Returns the packed board where the tile at the target index has been slid into the space. Only shifts and masks
+     * are used, so no objects are created.
      */
-    @Override
-    public boolean equals(Object obj) {
-        if (obj == this) {
-            return true;
-        }
-         if (!(obj instanceof Board)) {
-             return false;
-         }
+    static long swapWithSpace(final long tiles, final int spaceIndex, final int target) {
+        long tile = (tiles >>> (target << 2)) & NIBBLE_MASK;
+        return (tiles & ~(NIBBLE_MASK << (target << 2))) | (tile << (spaceIndex << 2));
+    }
 
-         boolean ans = true;
-         String[][] thisArray = this.getBoardAsGrid();
-         String[][] otherArray = ((Board) obj).getBoardAsGrid();
-         for(int i = 0; i < otherArray.length; i++) {
-             for (int j = 0; j < otherArray[i].length; j++) {
-                 if (!(thisArray[i][j].equals(otherArray[i][j]))) {
-                    ans = false;
-                    break;
-                 }
-             }
-         }
-         return ans;
+    /**
+     * Returns the index of the space in a packed board. The space is the only nibble that is 0, and the usual "find
+     * the zero byte" bit trick (on nibbles) flags it as the lowest set bit.
+     */
+    static int spaceIndexOf(final long tiles) {
+        long zeroes = (tiles - 0x1111111111111111L) & ~tiles & 0x8888888888888888L;
+        return Long.numberOfTrailingZeros(zeroes) >>> 2;
     }
 
     /**
-     * Converts the given 2D array representation of the board to its 1D representation.
+     * Returns the tile stored at the given index of a packed board.
      */
-    private String[] gridToLine(final String[][] input) {
-        String[] line = new String[input.length*input.length];
+    static int tileAt(final long tiles, final int index) {
+        return (int) ((tiles >>> (index << 2)) & NIBBLE_MASK);
+    }
 
-        for (int i = 0; i < input.length; i++) {
-            System.arraycopy(input[i],0, line, (i*4), 4);
-        }
+    /**
+     * Returns the tile stored at the given index of a board of over 16 cells.
+     */
+    static int tileAt(final long[] words, final int index) {
+        return (int) ((words[index >>> 3] >>> ((index & 7) << 3)) & BYTE_MASK);
+    }
 
-        return line;
+    /**
+     * Slides the tile at the target index of a board of over 16 cells into the space, in place.
+     */
+    static void swapWithSpace(final long[] words, final int spaceIndex, final int target) {
+        long tile = tileAt(words, target);
+        words[target >>> 3] &= ~(BYTE_MASK << ((target & 7) << 3));
+        words[spaceIndex >>> 3] |= tile << ((spaceIndex & 7) << 3);
     }
 
     /**
-     * Converts the given 1D array representation of the board to its 2D representation.
+     * Returns the 1D array representation of the board as a string.
      */
-    private String[][] lineToGrid(final String[] input) {
-        String[][] grid = new String[4][4];
+    @Override
+    public String toString() {
+        return Arrays.toString(getBoardAsLine());
+    }
 
-        for (int i = 0; i < grid.length; i++) {
-            System.arraycopy(input, (i*4), grid[i], 0, 4);
+    /**
+     * Determines whether the given board object is equivalent to this one by matching every tile.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
         }
-
-        return grid;
+        if (!(obj instanceof Board)) {
+            return false;
+        }
+        Board other = (Board) obj;
+        return shape == other.shape && tiles == other.tiles && Arrays.equals(words, other.words);
     }
 
     /**
-     * Creates a copy of a given 2D array.
+     * Hashes the board by its packed tiles so it agrees with equals.
      */
-    private String[][] deepCopy(final String[][] input) {
-        String[][] newArray = new String[input.length][input[0].length];
-        for (int i = 0; i < newArray.length; i++) {
-            newArray[i] = Arrays.copyOf(input[i], input[i].length);
-        }
-        return newArray;
+    @Override
+    public int hashCode() {
+        return words == null ? Long.hashCode(tiles) : Arrays.hashCode(words);
     }
-}
\ No newline at end of file
+}
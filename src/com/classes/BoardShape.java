@@ -0,0 +1,177 @@
+package com.classes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BoardShape holds the dimensions of a sliding puzzle board, rows by columns, and tables built once per size: the
+ * legal moves of the space from every cell with the cell each one swaps with, and the manhattan distance between
+ * every two cells. Expanding a board is then a walk down one short array, with no bounds checks or arithmetic on
+ * coordinates. There is one shared BoardShape for each size, so shapes can be compared with ==.
+ *
+ * Boards of up to 16 cells are packed into a single long (4 bits a cell) and every search works on them. Larger boards
+ * don't fit, so they are stored as an array of longs (8 bits a cell) and can only be solved with IDA*, which needs no
+ * visited set.
+ */
+final class BoardShape {
+
+    /* Global Variables: */
+    static final int MAX_PACKED_CELLS = 16;
+    static final int MAX_CELLS = 36;
+    private static final Map<Integer, BoardShape> SHAPES = new HashMap<>();
+    static final BoardShape FOUR_BY_FOUR = of(4, 4);
+
+    private final int rows;
+    private final int cols;
+    private final int cells;
+    private final int[] targets;
+    private final Board.Move[][] moves;
+    private final int[][] successors;
+    private final int[][] distances;
+
+    /**
+     * BoardShape constructor, precomputes where each move of the space leads from each cell, the legal moves from each
+     * cell and the distances between cells.
+     */
+    private BoardShape(final int rows, final int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cells = rows * cols;
+        this.targets = new int[cells << 2];
+        for (int space = 0; space < cells; space++) {
+            int row = space / cols;
+            int col = space % cols;
+            targets[(space << 2) | Board.Move.R.ordinal()] = col + 1 < cols ? space + 1 : -1;
+            targets[(space << 2) | Board.Move.D.ordinal()] = row + 1 < rows ? space + cols : -1;
+            targets[(space << 2) | Board.Move.L.ordinal()] = col > 0 ? space - 1 : -1;
+            targets[(space << 2) | Board.Move.U.ordinal()] = row > 0 ? space - cols : -1;
+        }
+
+        this.moves = new Board.Move[cells][];
+        this.successors = new int[cells][];
+        this.distances = new int[cells][cells];
+        for (int space = 0; space < cells; space++) {
+            List<Board.Move> legal = new ArrayList<>();
+            for (Board.Move move : Board.Move.values()) {
+                if (targets[(space << 2) | move.ordinal()] >= 0) {
+                    legal.add(move);
+                }
+            }
+            moves[space] = legal.toArray(new Board.Move[0]);
+            successors[space] = new int[moves[space].length];
+            for (int i = 0; i < moves[space].length; i++) {
+                successors[space][i] = targets[(space << 2) | moves[space][i].ordinal()];
+            }
+            for (int to = 0; to < cells; to++) {
+                distances[space][to] = Math.abs(rowOf(space) - rowOf(to)) + Math.abs(colOf(space) - colOf(to));
+            }
+        }
+    }
+
+    /**
+     * Returns the shape with the given number of rows and columns. Throws an IllegalArgumentException unless there
+     * are at least 2 of each and no more than MAX_CELLS cells.
+     */
+    static synchronized BoardShape of(final int rows, final int cols) {
+        if (rows < 2 || cols < 2 || rows * cols > MAX_CELLS) {
+            throw new IllegalArgumentException("Boards must be at least 2x2 with at most " + MAX_CELLS + " cells: "
+                                               + rows + "x" + cols);
+        }
+        return SHAPES.computeIfAbsent(rows * (MAX_CELLS + 1) + cols, key -> new BoardShape(rows, cols));
+    }
+
+    /**
+     * Returns the square shape with the given number of cells. Throws an IllegalArgumentException if the number isn't
+     * a square.
+     */
+    static BoardShape square(final int cells) {
+        int side = (int) Math.round(Math.sqrt(cells));
+        if (side * side != cells) {
+            throw new IllegalArgumentException(cells + " cells isn't a square board, give its size as <rows>x<cols>:");
+        }
+        return of(side, side);
+    }
+
+    /**
+     * Returns the number of rows.
+     */
+    int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns.
+     */
+    int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the number of cells, rows times columns.
+     */
+    int getCells() {
+        return cells;
+    }
+
+    /**
+     * Returns whether boards of this shape are packed into a single long.
+     */
+    boolean isPacked() {
+        return cells <= MAX_PACKED_CELLS;
+    }
+
+    /**
+     * Returns the row of the given cell.
+     */
+    int rowOf(final int index) {
+        return index / cols;
+    }
+
+    /**
+     * Returns the column of the given cell.
+     */
+    int colOf(final int index) {
+        return index % cols;
+    }
+
+    /**
+     * Returns the index of the tile the space would swap with if the given move was made, or -1 if the move would
+     * leave the board.
+     */
+    int moveTarget(final int spaceIndex, final Board.Move move) {
+        return targets[(spaceIndex << 2) | move.ordinal()];
+    }
+
+    /**
+     * Returns the legal moves of the space from the given cell, in Board.Move order. The array is shared, so it must
+     * not be changed.
+     */
+    Board.Move[] movesFrom(final int spaceIndex) {
+        return moves[spaceIndex];
+    }
+
+    /**
+     * Returns the cells the space swaps with for each of movesFrom(spaceIndex), in the same order. The array is
+     * shared, so it must not be changed.
+     */
+    int[] targetsFrom(final int spaceIndex) {
+        return successors[spaceIndex];
+    }
+
+    /**
+     * Returns the manhattan distance between two cells.
+     */
+    int distance(final int from, final int to) {
+        return distances[from][to];
+    }
+
+    /**
+     * Returns the shape as "<rows>x<cols>".
+     */
+    @Override
+    public String toString() {
+        return rows + "x" + cols;
+    }
+}
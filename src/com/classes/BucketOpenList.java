@@ -0,0 +1,101 @@
+package com.classes;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * BucketOpenList is an open list for small non-negative integer values. Every value has its own LIFO bucket of node
+ * handles, so adding and removing a node are O(1) instead of O(log n) on a heap.
+ *
+ * When the nodes are ordered by f = g + h (A*), nodes with the same f are also split by h and the smallest h comes out
+ * first. The buckets are laid out in (f, h) order with f * (f + 1) / 2 + h as the index, since h can never be more
+ * than f.
+ */
+class BucketOpenList implements OpenList {
+
+    /* Global Variables: */
+    private final NodeArena arena;
+    private final boolean orderByF;
+    private int[][] buckets = new int[64][];
+    private int[] bucketSizes = new int[64];
+    private int minIndex = Integer.MAX_VALUE;
+    private int size;
+
+    /**
+     * BucketOpenList constructor for nodes in the given arena. orderByF is true to order the nodes by f = g + h, or
+     * false to order them by h alone.
+     */
+    BucketOpenList(final NodeArena arena, final boolean orderByF) {
+        this.arena = arena;
+        this.orderByF = orderByF;
+    }
+
+    @Override
+    public void add(final int node) {
+        int index = indexOf(node);
+        if (index >= buckets.length) {
+            int length = buckets.length;
+            while (length <= index) {
+                length <<= 1;
+            }
+            buckets = Arrays.copyOf(buckets, length);
+            bucketSizes = Arrays.copyOf(bucketSizes, length);
+        }
+
+        int[] bucket = buckets[index];
+        int bucketSize = bucketSizes[index];
+        if (bucket == null) {
+            bucket = new int[16];
+            buckets[index] = bucket;
+        } else if (bucketSize == bucket.length) {
+            bucket = Arrays.copyOf(bucket, bucketSize << 1);
+            buckets[index] = bucket;
+        }
+        bucket[bucketSize] = node;
+        bucketSizes[index] = bucketSize + 1;
+
+        if (index < minIndex) {
+            minIndex = index;
+        }
+        size++;
+    }
+
+    @Override
+    public int remove() {
+        int node = peek();
+        bucketSizes[minIndex]--;
+        size--;
+        if (size == 0) {
+            minIndex = Integer.MAX_VALUE;
+        }
+        return node;
+    }
+
+    @Override
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        while (bucketSizes[minIndex] == 0) {
+            minIndex++;
+        }
+        return buckets[minIndex][bucketSizes[minIndex] - 1];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the index of the bucket the given node belongs in.
+     */
+    private int indexOf(final int node) {
+        int h = arena.getHeuristic(node);
+        if (!orderByF) {
+            return h;
+        }
+        int f = arena.getDepth(node) + h;
+        return f * (f + 1) / 2 + h;
+    }
+}
@@ -0,0 +1,26 @@
+package com.classes;
+
+/**
+ * CancellationToken lets another thread ask a running solve to stop, such as a service whose client went away. The
+ * search notices at its next stop check (see SearchContext.shouldStop) and returns with the statistics it has so far.
+ * One token can be shared by several solves to cancel them together.
+ */
+class CancellationToken {
+
+    /* Global Variables: */
+    private volatile boolean cancelled;
+
+    /**
+     * Asks every solve using this token to stop.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns whether cancel has been called.
+     */
+    boolean isCancelled() {
+        return cancelled;
+    }
+}
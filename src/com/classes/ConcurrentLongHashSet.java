@@ -0,0 +1,100 @@
+package com.classes;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * ConcurrentLongHashSet is a lock-free open-addressing (linear probing) set of packed board states for searches that
+ * add boards from many threads at once. A key is claimed by a compare-and-set on its empty slot, so two threads adding
+ * the same board can't both succeed and neither ever waits on a lock.
+ *
+ * The table never grows during adds. Searches that add in rounds, such as one BFS layer at a time, call
+ * ensureCapacity between rounds with the most keys the set can hold by the end of the next round, and the table is
+ * rebuilt then while no other thread is using it. As in LongHashSet, 0 marks an empty slot.
+ */
+class ConcurrentLongHashSet {
+
+    /* Global Variables: */
+    private static final int DEFAULT_CAPACITY = 1 << 12;
+    private static final int MAX_CAPACITY = 1 << 29;
+    private static final long EMPTY = 0L;
+
+    private AtomicLongArray table = new AtomicLongArray(DEFAULT_CAPACITY);
+    private int mask = DEFAULT_CAPACITY - 1;
+
+    /**
+     * Adds the given key to the set. Returns true if this call added it, false if it was already in the set (or
+     * another thread added it first). Safe to call from any number of threads at once.
+     */
+    boolean add(final long key) {
+        int i = indexOf(key);
+        while (true) {
+            long current = table.get(i);
+            if (current == EMPTY) {
+                if (table.compareAndSet(i, EMPTY, key)) {
+                    return true;
+                }
+                current = table.get(i);
+            }
+            if (current == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns whether the given key is in the set.
+     */
+    boolean contains(final long key) {
+        int i = indexOf(key);
+        while (true) {
+            long current = table.get(i);
+            if (current == key) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Makes room for at most the given number of keys in all, keeping the table at most seven eighths full (callers
+     * pass a worst case, so it is usually much emptier). Must not be called while other threads are adding.
+     */
+    void ensureCapacity(final long maxKeys) {
+        int capacity = mask + 1;
+        while (capacity / 8 * 7 < maxKeys) {
+            if (capacity >= MAX_CAPACITY) {
+                throw new IllegalStateException("ConcurrentLongHashSet cannot grow past " + MAX_CAPACITY + " slots");
+            }
+            capacity <<= 1;
+        }
+        if (capacity == mask + 1) {
+            return;
+        }
+
+        AtomicLongArray oldTable = table;
+        table = new AtomicLongArray(capacity);
+        mask = capacity - 1;
+        for (int j = 0; j < oldTable.length(); j++) {
+            long key = oldTable.get(j);
+            if (key != EMPTY) {
+                int i = indexOf(key);
+                while (table.get(i) != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                table.set(i, key);
+            }
+        }
+    }
+
+    /**
+     * Returns the first slot to probe for the given key, mixed the same way as in LongHashSet.
+     */
+    private int indexOf(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,547 @@
+package com.classes;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * ExternalBreadthFirstSearch is a breadth-first search that keeps its layers on disk instead of in the heap, so it can
+ * search (or fully enumerate) layers far larger than memory. Each layer is a file of packed boards in sorted order with
+ * no duplicates.
+ *
+ * The next layer is made by streaming the current layer and collecting children in a fixed-size buffer. Whenever the
+ * buffer fills it is sorted, its duplicates are dropped and it is written out as a sorted run. The runs are then merged
+ * into the next layer, and duplicates are dropped by merging against the current and previous layers as well, since a
+ * board's neighbors are all in the layer before it, its own layer or the layer after it.
+ *
+ * After each layer a checkpoint is written, so a search that is stopped (or runs out of time) picks up from its last
+ * finished layer the next time the same board is solved. The layers are kept after the search and are used to find
+ * the solution's moves, walking back from the goal one layer at a time.
+ *
+ * Files go into ./bfs/<shape>-<initial board> (or -Dpuzzle.bfsDir), and -Dpuzzle.bfsBuffer sets how many boards are
+ * sorted in memory at once. Only one solve at a time uses a directory, whether the others are in this process or
+ * another: a solve of the same board waits for it (up to its own deadline) and then resumes from its checkpoint.
+ */
+class ExternalBreadthFirstSearch {
+
+    /* Global Variables: */
+    private static final int MAGIC = 0x45424653;
+    private static final File DIRECTORY = new File(System.getProperty("puzzle.bfsDir", "bfs"));
+    private static final int BUFFER_STATES = Integer.getInteger("puzzle.bfsBuffer", 1 << 22);
+    private static final int IO_BUFFER_BYTES = 1 << 16;
+    private static final Board.Move[] MOVES = Board.Move.values();
+    private static final long LOCK_POLL_MILLIS = 50;
+    private static final Set<File> IN_USE = new HashSet<>();
+
+    private final long initial;
+    private final long goal;
+    private final BoardShape shape;
+    private final File directory;
+    private final SearchContext context;
+    private int runs;
+
+    /**
+     * ExternalBreadthFirstSearch constructor, takes the initial and goal boards and the context to record in.
+     */
+    private ExternalBreadthFirstSearch(final Board initial, final Board goal, final SearchContext context) {
+        this.initial = initial.getTiles();
+        this.goal = goal.getTiles();
+        this.shape = initial.getShape();
+        this.directory = new File(DIRECTORY, shape + "-" + Long.toHexString(this.initial));
+        this.context = context;
+    }
+
+    /**
+     * Tries to solve the given board with breadth-first search on disk, resuming from a checkpoint if there is one.
+     * There is no time limit unless the context has one. If a solution is found, records:
+     * - The depth it was found at.
+     * - The total number of nodes created (boards written to a new layer, over every run of this search).
+     * - The total number of nodes expanded (over every run of this search).
+     * - The size of the fringe at its largest (the largest layer).
+     * - The moves of the solution.
+     */
+    static void search(final Board initial, final Board goal, final SearchContext context) {
+        context.start(0, false);
+        ExternalBreadthFirstSearch search = new ExternalBreadthFirstSearch(initial, goal, context);
+        try {
+            if (!search.claimDirectory()) {
+                return;
+            }
+            try (FileChannel lockFile = FileChannel.open(new File(search.directory, "lock").toPath(),
+                                                         StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                FileLock lock = search.lockDirectory(lockFile);
+                if (lock == null) {
+                    return;
+                }
+                try {
+                    search.run();
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                search.releaseDirectory();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates the work directory and waits until no other solve in this process is using it. Returns false if the
+     * search was stopped (or interrupted) while waiting.
+     */
+    private boolean claimDirectory() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't create " + directory);
+        }
+        synchronized (IN_USE) {
+            while (!IN_USE.add(directory)) {
+                if (context.shouldStopNow()) {
+                    return false;
+                }
+                try {
+                    IN_USE.wait(LOCK_POLL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lets the next solve in this process waiting for the work directory have it.
+     */
+    private void releaseDirectory() {
+        synchronized (IN_USE) {
+            IN_USE.remove(directory);
+            IN_USE.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until no other process is using the work directory and returns the lock that keeps it, or null if the
+     * search was stopped (or interrupted) while waiting.
+     */
+    private FileLock lockDirectory(final FileChannel lockFile) throws IOException {
+        for (FileLock lock = lockFile.tryLock(); ; lock = lockFile.tryLock()) {
+            if (lock != null) {
+                return lock;
+            }
+            if (context.shouldStopNow()) {
+                return null;
+            }
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Expands one layer after another until the goal is found, a layer comes out empty or time runs out.
+     */
+    private void run() throws IOException {
+        if (initial == goal) {
+            context.addExpanded();
+            context.solved(0);
+            context.setPath("");
+            return;
+        }
+
+        int depth = readCheckpoint();
+        if (depth < 0) {
+            try (LongWriter writer = new LongWriter(layerFile(0))) {
+                writer.write(initial);
+            }
+            depth = 0;
+            context.updateFringe(1);
+            writeCheckpoint(depth);
+        }
+        // Every board created is kept in exactly one layer on disk.
+        context.updateVisited(context.getNumCreated());
+
+        deleteRuns();
+        while (!context.shouldStopNow()) {
+            if (!expandLayer(depth)) {
+                return;
+            }
+            long size = mergeRuns(depth);
+            if (size == 0) {
+                return;
+            }
+            depth++;
+            context.updateFringe(size);
+            context.updateVisited(context.getNumCreated());
+            writeCheckpoint(depth);
+        }
+    }
+
+    /**
+     * Streams the given layer and writes its children as sorted runs. Returns true once the whole layer has been
+     * expanded, or false if a child is the goal (and the solution has been recorded) or the solve was stopped.
+     */
+    private boolean expandLayer(final int depth) throws IOException {
+        long[] buffer = new long[BUFFER_STATES];
+        int size = 0;
+        runs = 0;
+        try (LongReader reader = new LongReader(layerFile(depth))) {
+            while (reader.hasNext()) {
+                long tiles = reader.next();
+                context.addExpanded();
+                if (context.shouldStop()) {
+                    deleteRuns();
+                    return false;
+                }
+
+                int space = Board.spaceIndexOf(tiles);
+                Board.Move[] moves = shape.movesFrom(space);
+                int[] targets = shape.targetsFrom(space);
+                for (int m = 0; m < moves.length; m++) {
+                    Board.Move move = moves[m];
+                    int target = targets[m];
+                    long child = Board.swapWithSpace(tiles, space, target);
+                    if (child == goal) {
+                        deleteRuns();
+                        context.addCreated();
+                        context.solved(depth + 1);
+                        context.setPath(pathTo(tiles, depth) + move);
+                        return false;
+                    }
+                    if (size == buffer.length) {
+                        writeRun(buffer, size);
+                        size = 0;
+                    }
+                    buffer[size++] = child;
+                }
+            }
+        }
+        if (size > 0) {
+            writeRun(buffer, size);
+        }
+        return true;
+    }
+
+    /**
+     * Sorts the buffer, drops its duplicates and writes it out as the next run.
+     */
+    private void writeRun(final long[] buffer, final int size) throws IOException {
+        Arrays.sort(buffer, 0, size);
+        try (LongWriter writer = new LongWriter(runFile(runs++))) {
+            for (int i = 0; i < size; i++) {
+                if (i > 0 && buffer[i] == buffer[i - 1]) {
+                    context.addDuplicate();
+                } else {
+                    writer.write(buffer[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merges the runs written while expanding the given layer into the next layer, dropping boards that are in more
+     * than one run or in the given layer or the one before it. Deletes the runs and returns the new layer's size.
+     */
+    private long mergeRuns(final int depth) throws IOException {
+        List<LongReader> readers = new ArrayList<>();
+        PriorityQueue<LongReader> heads = new PriorityQueue<>((a, b) -> Long.compare(a.peek(), b.peek()));
+        LongReader current = null;
+        LongReader previous = null;
+        long size = 0;
+        try (LongWriter writer = new LongWriter(layerFile(depth + 1))) {
+            for (int run = 0; run < runs; run++) {
+                LongReader reader = new LongReader(runFile(run));
+                readers.add(reader);
+                if (reader.hasNext()) {
+                    heads.add(reader);
+                }
+            }
+            current = new LongReader(layerFile(depth));
+            previous = depth > 0 ? new LongReader(layerFile(depth - 1)) : null;
+
+            boolean first = true;
+            long last = 0;
+            while (!heads.isEmpty()) {
+                LongReader reader = heads.remove();
+                long tiles = reader.next();
+                if (reader.hasNext()) {
+                    heads.add(reader);
+                }
+                boolean seen = (!first && tiles == last) || current.skipTo(tiles)
+                               || (previous != null && previous.skipTo(tiles));
+                if (seen) {
+                    context.addDuplicate();
+                    continue;
+                }
+                first = false;
+                last = tiles;
+                writer.write(tiles);
+                context.addCreated();
+                size++;
+            }
+        } finally {
+            for (LongReader reader : readers) {
+                reader.close();
+            }
+            if (current != null) {
+                current.close();
+            }
+            if (previous != null) {
+                previous.close();
+            }
+        }
+        deleteRuns();
+        return size;
+    }
+
+    /**
+     * Returns the moves from the initial board to the given board in the given layer, found by looking for one of each
+     * board's neighbors in the layer before it.
+     */
+    private String pathTo(final long tiles, final int depth) throws IOException {
+        StringBuilder path = new StringBuilder(depth + 1);
+        long current = tiles;
+        for (int layer = depth - 1; layer >= 0; layer--) {
+            int space = Board.spaceIndexOf(current);
+            long[] neighbors = new long[MOVES.length];
+            for (Board.Move move : MOVES) {
+                int target = shape.moveTarget(space, move);
+                neighbors[move.ordinal()] = target < 0 ? current : Board.swapWithSpace(current, space, target);
+            }
+
+            int found = -1;
+            try (LongReader reader = new LongReader(layerFile(layer))) {
+                while (found < 0 && reader.hasNext()) {
+                    long next = reader.next();
+                    for (int m = 0; m < neighbors.length; m++) {
+                        if (neighbors[m] == next && neighbors[m] != current) {
+                            found = m;
+                        }
+                    }
+                }
+            }
+            if (found < 0) {
+                throw new IOException("Layer " + layer + " in " + directory + " is missing a parent, delete the "
+                                      + "directory to start over");
+            }
+            // The space moved from the neighbor to this board by undoing the move that led to the neighbor.
+            path.append(MOVES[found].opposite());
+            current = neighbors[found];
+        }
+        return path.reverse().toString();
+    }
+
+    /**
+     * Returns the depth of the last finished layer from the checkpoint and restores the statistics, or returns -1 if
+     * there is no checkpoint.
+     */
+    private int readCheckpoint() throws IOException {
+        File file = new File(directory, "checkpoint");
+        if (!file.exists()) {
+            return -1;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readInt() != MAGIC || in.readLong() != initial || in.readLong() != goal) {
+                throw new IllegalStateException("Checkpoint " + file + " is corrupt, delete it to start over");
+            }
+            int depth = in.readInt();
+            long numCreated = in.readLong();
+            long numExpanded = in.readLong();
+            long maxFringe = in.readLong();
+            context.setStatistics(numCreated, numExpanded, maxFringe);
+            return depth;
+        }
+    }
+
+    /**
+     * Writes a checkpoint saying the given layer is finished, along with the statistics so far. The checkpoint is
+     * written to a temporary file first and then moved over the old one, so there is always a whole checkpoint.
+     */
+    private void writeCheckpoint(final int depth) throws IOException {
+        File file = new File(directory, "checkpoint");
+        File temp = new File(directory, "checkpoint.tmp");
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+            out.writeInt(MAGIC);
+            out.writeLong(initial);
+            out.writeLong(goal);
+            out.writeInt(depth);
+            out.writeLong(context.getNumCreated());
+            out.writeLong(context.getNumExpanded());
+            out.writeLong(context.getMaxFringe());
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Can't move " + temp + " to " + file);
+        }
+    }
+
+    /**
+     * Deletes every run in the directory, including any left by a search that was stopped part way through a layer.
+     */
+    private void deleteRuns() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith("run-"));
+        if (files == null) {
+            throw new IOException("Can't list " + directory);
+        }
+        for (File file : files) {
+            if (!file.delete()) {
+                throw new IOException("Can't delete " + file);
+            }
+        }
+    }
+
+    /**
+     * Returns the file of the given layer.
+     */
+    private File layerFile(final int depth) {
+        return new File(directory, "layer-" + depth + ".bin");
+    }
+
+    /**
+     * Returns the file of the given sorted run.
+     */
+    private File runFile(final int run) {
+        return new File(directory, "run-" + run + ".tmp");
+    }
+
+    /**
+     * Reads packed boards from a file through a buffer.
+     */
+    private static final class LongReader implements Closeable {
+
+        /* Global Variables: */
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+        private boolean hasNext;
+        private long next;
+
+        /**
+         * LongReader constructor, opens the file and reads its first board.
+         */
+        LongReader(final File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+            buffer.limit(0);
+            advance();
+        }
+
+        /**
+         * Returns whether there is another board.
+         */
+        boolean hasNext() {
+            return hasNext;
+        }
+
+        /**
+         * Returns the next board without moving past it.
+         */
+        long peek() {
+            return next;
+        }
+
+        /**
+         * Returns the next board and moves past it.
+         */
+        long next() throws IOException {
+            long result = next;
+            advance();
+            return result;
+        }
+
+        /**
+         * Moves past every board smaller than the given one. Returns whether the next board is the given one. The
+         * file must be sorted and the boards asked for must be in sorted order too.
+         */
+        boolean skipTo(final long tiles) throws IOException {
+            while (hasNext && next < tiles) {
+                advance();
+            }
+            return hasNext && next == tiles;
+        }
+
+        /**
+         * Reads the next board into next, refilling the buffer when it runs out.
+         */
+        private void advance() throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                buffer.compact();
+                while (buffer.position() < Long.BYTES) {
+                    if (channel.read(buffer) < 0) {
+                        break;
+                    }
+                }
+                buffer.flip();
+            }
+            hasNext = buffer.remaining() >= Long.BYTES;
+            if (hasNext) {
+                next = buffer.getLong();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes packed boards to a file through a buffer.
+     */
+    private static final class LongWriter implements Closeable {
+
+        /* Global Variables: */
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER_BYTES);
+
+        /**
+         * LongWriter constructor, creates (or empties) the file.
+         */
+        LongWriter(final File file) throws IOException {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                       StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * Writes one board.
+         */
+        void write(final long tiles) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(tiles);
+        }
+
+        /**
+         * Writes out everything in the buffer.
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.classes;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * HeapOpenList is the original binary heap open list, kept for comparison against BucketOpenList. It holds node
+ * handles and sifts them the same way java.util.PriorityQueue does, so nodes with equal values come out in the same
+ * order as they did from the PriorityQueue of nodes it replaces.
+ */
+class HeapOpenList implements OpenList {
+
+    /* Global Variables: */
+    private final NodeArena arena;
+    private final int depthWeight;
+    private final int heuristicWeight;
+    private int[] heap = new int[64];
+    private int size;
+
+    /**
+     * HeapOpenList constructor for nodes in the given arena. orderByF is true to order the nodes by f = g + h, or
+     * false to order them by h alone.
+     */
+    HeapOpenList(final NodeArena arena, final boolean orderByF) {
+        this(arena, orderByF ? 1 : 0, 1);
+    }
+
+    /**
+     * Alternate HeapOpenList constructor that orders the nodes by depthWeight * g + heuristicWeight * h, such as
+     * 100 * g + 250 * h for weighted A* with a weight of 2.5.
+     */
+    HeapOpenList(final NodeArena arena, final int depthWeight, final int heuristicWeight) {
+        this.arena = arena;
+        this.depthWeight = depthWeight;
+        this.heuristicWeight = heuristicWeight;
+    }
+
+    @Override
+    public void add(final int node) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size << 1);
+        }
+        int value = valueOf(node);
+        int k = size++;
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (value >= valueOf(heap[parent])) {
+                break;
+            }
+            heap[k] = heap[parent];
+            k = parent;
+        }
+        heap[k] = node;
+    }
+
+    @Override
+    public int remove() {
+        int result = peek();
+        int last = heap[--size];
+        if (size > 0) {
+            int value = valueOf(last);
+            int k = 0;
+            int half = size >>> 1;
+            while (k < half) {
+                int child = (k << 1) + 1;
+                int right = child + 1;
+                if (right < size && valueOf(heap[child]) > valueOf(heap[right])) {
+                    child = right;
+                }
+                if (value <= valueOf(heap[child])) {
+                    break;
+                }
+                heap[k] = heap[child];
+                k = child;
+            }
+            heap[k] = last;
+        }
+        return result;
+    }
+
+    @Override
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value the given node is ordered by.
+     */
+    int valueOf(final int node) {
+        return depthWeight * arena.getDepth(node) + heuristicWeight * arena.getHeuristic(node);
+    }
+}
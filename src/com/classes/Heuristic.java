@@ -0,0 +1,129 @@
+package com.classes;
+
+/**
+ * Heuristic interface for the informed searches. A heuristic is built once for a goal state and then estimates how
+ * far any board is from that goal.
+ */
+interface Heuristic {
+
+    /**
+     * Returns the heuristic value of the given packed board, computed from scratch.
+     */
+    int evaluate(long tiles);
+
+    /**
+     * Returns the heuristic value of the given board, computed from scratch.
+     */
+    default int evaluate(final Board board) {
+        return evaluate(board.getTiles());
+    }
+
+    /**
+     * Returns the heuristic value of the packed child reached by sliding the tile at childSpace into parentSpace,
+     * given the value of its parent. Heuristics that can't be updated incrementally just evaluate the child from
+     * scratch.
+     */
+    default int evaluateChild(final int parentValue, final long parentTiles, final int parentSpace,
+                              final int childSpace) {
+        return evaluate(Board.swapWithSpace(parentTiles, parentSpace, childSpace));
+    }
+
+    /**
+     * Returns the heuristic value of a child board given the value of its parent.
+     */
+    default int evaluateChild(final int parentValue, final Board parent, final Board child) {
+        return evaluateChild(parentValue, parent.getTiles(), parent.getSpaceIndex(), child.getSpaceIndex());
+    }
+
+    /**
+     * Returns whether the heuristic with the given name never overestimates: h3 (pdb), h4 (lc) and h5 (wd). h1 and h2
+     * count the space's own distance, so they can overestimate, and searches using them may not find the shortest
+     * solution.
+     */
+    static boolean isAdmissible(final String name) {
+        switch (name) {
+            case "h3":
+            case "pdb":
+            case "h4":
+            case "lc":
+            case "h5":
+            case "wd":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the heuristic for the given name from the command line: h1 is the number of misplaced tiles, h3 (or
+     * pdb) is the additive pattern database (4x4 only), h4 (or lc) is manhattan distance plus linear conflicts, h5 (or
+     * wd) is the walking distance (both up to 4x4) and anything else is the sum of manhattan distances (h2).
+     */
+    static Heuristic forName(final String name, final Board goal) {
+        switch (name) {
+            case "h1":
+                return TileDistanceHeuristic.misplacedTiles(goal);
+            case "h3":
+            case "pdb":
+                if (goal.getShape() != BoardShape.FOUR_BY_FOUR) {
+                    throw new IllegalArgumentException("The pattern database (h3) only covers 4x4 boards");
+                }
+                return PatternDatabaseHeuristic.forGoal(goal);
+            case "h4":
+            case "lc":
+                return LinearConflictHeuristic.forGoal(goal);
+            case "h5":
+            case "wd":
+                return WalkingDistanceHeuristic.forGoal(goal);
+            default:
+                return TileDistanceHeuristic.manhattanDistance(goal);
+        }
+    }
+
+    /**
+     * Returns the heuristic for the given name as forName does, but one that never overestimates: h1 and h2 leave out
+     * the space, and an empty name means walking distance (wd) on boards up to 4x4 and h2 without the space on larger
+     * ones. For searches whose stopping rule is only correct with an admissible heuristic.
+     */
+    static Heuristic admissibleForName(final String name, final Board goal) {
+        if (isAdmissible(name)) {
+            return forName(name, goal);
+        }
+        if (name.equals("h1")) {
+            return TileDistanceHeuristic.misplacedTiles(goal, false);
+        }
+        BoardShape shape = goal.getShape();
+        if (name.isEmpty() && shape.getRows() <= 4 && shape.getCols() <= 4) {
+            return WalkingDistanceHeuristic.forGoal(goal);
+        }
+        return TileDistanceHeuristic.manhattanDistance(goal, false);
+    }
+
+    /**
+     * Returns the heuristic admissibleForName would, but towards a target that is only used once, such as the initial
+     * board a backward search heads for, so nothing built for it is kept: the tile distance and linear conflict
+     * tables are built for this use alone, and walking distance only shares its few per-shape tables. Throws an
+     * IllegalArgumentException for the pattern database (h3), which would have to build and save one for the target.
+     */
+    static Heuristic admissibleTowards(final String name, final Board target) {
+        switch (name) {
+            case "h3":
+            case "pdb":
+                throw new IllegalArgumentException("The pattern database (h3) can't be built for every initial board");
+            case "h4":
+            case "lc":
+                return LinearConflictHeuristic.towards(target);
+            case "h5":
+            case "wd":
+                return WalkingDistanceHeuristic.forGoal(target);
+            case "h1":
+                return TileDistanceHeuristic.buildMisplacedTiles(target, false);
+            default:
+                BoardShape shape = target.getShape();
+                if (name.isEmpty() && shape.getRows() <= 4 && shape.getCols() <= 4) {
+                    return WalkingDistanceHeuristic.forGoal(target);
+                }
+                return TileDistanceHeuristic.buildManhattanDistance(target, false);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.classes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LinearConflictHeuristic (lc or h4) is the manhattan distance plus linear conflicts (Hansson et al., 1992). Unlike
+ * h2, the space's own distance isn't counted, so the value never overestimates. Two tiles are in conflict when both
+ * are in their goal row (or column) but in the wrong order, so one of them has to leave the line and come back, which
+ * costs 2 moves the manhattan distance doesn't count. For each line, the fewest tiles that have to leave so the rest
+ * are in order is the number of tiles in their goal line minus the longest run of them already in order, and each
+ * costs 2.
+ *
+ * The cost of every possible line is worked out once per goal into a table indexed by the line's packed tiles (4
+ * bits a cell), so a line costs one lookup. A move only changes the order of tiles in the two lines it crosses (the
+ * two columns for a sideways move, the two rows for an up or down move), so a child's value is its parent's with
+ * those two lines looked up again. Only shapes with at most 4 rows and 4 columns are covered.
+ */
+class LinearConflictHeuristic implements Heuristic {
+
+    /* Global Variables: */
+    private static final int MAX_LINE = 4;
+    private static final Map<Board, LinearConflictHeuristic> BUILT = new HashMap<>();
+
+    private final BoardShape shape;
+    private final TileDistanceHeuristic manhattan;
+    private final byte[][] rowCosts;
+    private final byte[][] colCosts;
+
+    /**
+     * LinearConflictHeuristic constructor, builds the row and column tables for the given goal, whose manhattan
+     * distance (without the space) is given.
+     */
+    private LinearConflictHeuristic(final Board goal, final TileDistanceHeuristic manhattan) {
+        this.shape = goal.getShape();
+        this.manhattan = manhattan;
+        int[] goalPositions = goal.getPositions();
+        int[] goalRows = new int[shape.getCells()];
+        int[] goalCols = new int[shape.getCells()];
+        for (int tile = 1; tile < shape.getCells(); tile++) {
+            goalRows[tile] = shape.rowOf(goalPositions[tile]);
+            goalCols[tile] = shape.colOf(goalPositions[tile]);
+        }
+        goalRows[0] = -1;
+        goalCols[0] = -1;
+
+        rowCosts = new byte[shape.getRows()][];
+        for (int row = 0; row < shape.getRows(); row++) {
+            rowCosts[row] = buildLine(shape.getCols(), row, goalRows, goalCols);
+        }
+        colCosts = new byte[shape.getCols()][];
+        for (int col = 0; col < shape.getCols(); col++) {
+            colCosts[col] = buildLine(shape.getRows(), col, goalCols, goalRows);
+        }
+    }
+
+    /**
+     * Returns the heuristic for the given goal, building its tables on first use. Throws an IllegalArgumentException
+     * if the goal's shape has more than 4 rows or columns.
+     */
+    static synchronized LinearConflictHeuristic forGoal(final Board goal) {
+        checkShape(goal.getShape());
+        return BUILT.computeIfAbsent(
+                goal, key -> new LinearConflictHeuristic(key, TileDistanceHeuristic.manhattanDistance(key, false)));
+    }
+
+    /**
+     * Returns the heuristic for the given target, building its tables without keeping them, for a target that is
+     * only used once (such as the initial board a backward search heads for). Throws an IllegalArgumentException if
+     * the target's shape has more than 4 rows or columns.
+     */
+    static LinearConflictHeuristic towards(final Board target) {
+        checkShape(target.getShape());
+        return new LinearConflictHeuristic(target, TileDistanceHeuristic.buildManhattanDistance(target, false));
+    }
+
+    /**
+     * Throws an IllegalArgumentException if the given shape has more than 4 rows or columns.
+     */
+    private static void checkShape(final BoardShape shape) {
+        if (shape.getRows() > MAX_LINE || shape.getCols() > MAX_LINE) {
+            throw new IllegalArgumentException("Linear conflicts (lc) only cover boards up to 4x4, not " + shape);
+        }
+    }
+
+    /**
+     * Returns the table of costs for every packed line of the given length: lines are numbered by line, and a tile is
+     * in its goal line if goalLines[tile] is line, in which case goalOffsets[tile] is its goal position along it.
+     */
+    private static byte[] buildLine(final int length, final int line, final int[] goalLines, final int[] goalOffsets) {
+        byte[] costs = new byte[1 << (length << 2)];
+        int[] order = new int[length];
+        int[] runs = new int[length];
+        for (int packed = 0; packed < costs.length; packed++) {
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                int tile = (packed >>> (i << 2)) & 0xF;
+                if (tile < goalLines.length && goalLines[tile] == line) {
+                    order[count++] = goalOffsets[tile];
+                }
+            }
+            // Longest increasing run of goal offsets, by the usual O(n^2) method as lines are at most 4 long.
+            int longest = 0;
+            for (int i = 0; i < count; i++) {
+                runs[i] = 1;
+                for (int j = 0; j < i; j++) {
+                    if (order[j] < order[i] && runs[j] + 1 > runs[i]) {
+                        runs[i] = runs[j] + 1;
+                    }
+                }
+                longest = Math.max(longest, runs[i]);
+            }
+            costs[packed] = (byte) (2 * (count - longest));
+        }
+        return costs;
+    }
+
+    /**
+     * Returns the manhattan distance plus every row's and column's linear conflicts.
+     */
+    @Override
+    public int evaluate(final long tiles) {
+        int total = manhattan.evaluate(tiles);
+        for (int row = 0; row < shape.getRows(); row++) {
+            total += rowCosts[row][packedRow(tiles, row)];
+        }
+        for (int col = 0; col < shape.getCols(); col++) {
+            total += colCosts[col][packedCol(tiles, col)];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the child's value from the parent's: the manhattan change for the tile that moved, plus the change in
+     * the two lines it crossed.
+     */
+    @Override
+    public int evaluateChild(final int parentValue, final long parentTiles, final int parentSpace,
+                             final int childSpace) {
+        long childTiles = Board.swapWithSpace(parentTiles, parentSpace, childSpace);
+        int value = parentValue + manhattan.delta(Board.tileAt(parentTiles, childSpace), childSpace, parentSpace);
+        if (shape.rowOf(parentSpace) == shape.rowOf(childSpace)) {
+            return value + colChange(parentTiles, childTiles, shape.colOf(parentSpace))
+                    + colChange(parentTiles, childTiles, shape.colOf(childSpace));
+        }
+        return value + rowChange(parentTiles, childTiles, shape.rowOf(parentSpace))
+                + rowChange(parentTiles, childTiles, shape.rowOf(childSpace));
+    }
+
+    /**
+     * Returns the change in the given row's cost from the parent to the child.
+     */
+    private int rowChange(final long parentTiles, final long childTiles, final int row) {
+        return rowCosts[row][packedRow(childTiles, row)] - rowCosts[row][packedRow(parentTiles, row)];
+    }
+
+    /**
+     * Returns the change in the given column's cost from the parent to the child.
+     */
+    private int colChange(final long parentTiles, final long childTiles, final int col) {
+        return colCosts[col][packedCol(childTiles, col)] - colCosts[col][packedCol(parentTiles, col)];
+    }
+
+    /**
+     * Returns the tiles of the given row, packed 4 bits a cell.
+     */
+    private int packedRow(final long tiles, final int row) {
+        int bits = shape.getCols() << 2;
+        return (int) ((tiles >>> (row * bits)) & ((1L << bits) - 1));
+    }
+
+    /**
+     * Returns the tiles of the given column, packed 4 bits a cell.
+     */
+    private int packedCol(final long tiles, final int col) {
+        int packed = 0;
+        for (int row = 0; row < shape.getRows(); row++) {
+            packed |= Board.tileAt(tiles, row * shape.getCols() + col) << (row << 2);
+        }
+        return packed;
+    }
+}
@@ -0,0 +1,202 @@
+package com.classes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * LongHashSet is an open-addressing (linear probing) set of packed board states. Keys are kept in a flat table of
+ * longs instead of boxed objects, so checking for a duplicate board is a single hash and usually a single probe.
+ *
+ * The table either lives on the heap as a long[] or off-heap in a direct buffer, which keeps very large visited sets
+ * out of the garbage collector's way. A packed board is never 0 (only the space is stored as 0), so 0 marks an empty
+ * slot. The table holds up to 2^28 slots on the heap and 2^27 off it (a direct buffer's 2 GB limit), and growing past
+ * that throws an IllegalStateException.
+ */
+class LongHashSet {
+
+    /* Global Variables: */
+    private static final int DEFAULT_CAPACITY = 1 << 12;
+    private static final int MAX_CAPACITY = 1 << 28;
+    private static final int MAX_OFF_HEAP_CAPACITY = 1 << 27;
+    private static final long EMPTY = 0L;
+
+    private final boolean offHeap;
+    private final int maxCapacity;
+    private long[] table;
+    private LongBuffer buffer;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    /**
+     * LongHashSet constructor for an on-heap set with the default starting capacity.
+     */
+    LongHashSet() {
+        this(DEFAULT_CAPACITY, false);
+    }
+
+    /**
+     * Alternate LongHashSet constructor for picking the expected number of keys and whether the table is off-heap.
+     */
+    LongHashSet(final int expectedSize, final boolean offHeap) {
+        this.offHeap = offHeap;
+        this.maxCapacity = offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_CAPACITY;
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < maxCapacity && capacity * 3L / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * Adds the given key to the set. Returns true if the key was not already in the set.
+     */
+    boolean add(final long key) {
+        int i = indexOf(key);
+        while (true) {
+            long current = get(i);
+            if (current == EMPTY) {
+                break;
+            }
+            if (current == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+
+        put(i, key);
+        if (++size > resizeAt) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the given key is in the set.
+     */
+    boolean contains(final long key) {
+        int i = indexOf(key);
+        while (true) {
+            long current = get(i);
+            if (current == key) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes the given key from the set. Returns true if it was in the set. The keys after it in its run are shifted
+     * back into the gap, so lookups never need tombstones.
+     */
+    boolean remove(final long key) {
+        int i = indexOf(key);
+        while (true) {
+            long current = get(i);
+            if (current == EMPTY) {
+                return false;
+            }
+            if (current == key) {
+                break;
+            }
+            i = (i + 1) & mask;
+        }
+
+        int gap = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            long current = get(j);
+            if (current == EMPTY) {
+                break;
+            }
+            // A key can fill the gap only if its first slot isn't between the gap and where it is now.
+            int home = indexOf(current);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                put(gap, current);
+                gap = j;
+            }
+        }
+        put(gap, EMPTY);
+        size--;
+        return true;
+    }
+
+    /**
+     * Returns the number of keys in the set.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the first slot to probe for the given key. The key is mixed first since neighbouring boards differ in
+     * only two nibbles.
+     */
+    private int indexOf(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Doubles the table and re-inserts every key.
+     */
+    private void grow() {
+        int oldCapacity = mask + 1;
+        if (oldCapacity >= maxCapacity) {
+            throw new IllegalStateException("LongHashSet cannot grow past " + maxCapacity + " slots");
+        }
+        long[] oldTable = table;
+        LongBuffer oldBuffer = buffer;
+
+        allocate(oldCapacity << 1);
+        for (int j = 0; j < oldCapacity; j++) {
+            long key = oldTable != null ? oldTable[j] : oldBuffer.get(j);
+            if (key != EMPTY) {
+                int i = indexOf(key);
+                while (get(i) != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                put(i, key);
+            }
+        }
+    }
+
+    /**
+     * Allocates an empty table with the given (power of two) number of slots.
+     */
+    private void allocate(final int capacity) {
+        if (offHeap) {
+            table = null;
+            ByteBuffer bytes = ByteBuffer.allocateDirect((int) ((long) capacity * Long.BYTES));
+            buffer = bytes.order(ByteOrder.nativeOrder()).asLongBuffer();
+        } else {
+            table = new long[capacity];
+            buffer = null;
+        }
+        mask = capacity - 1;
+        resizeAt = capacity / 4 * 3;
+    }
+
+    /**
+     * Returns the key stored in the given slot.
+     */
+    private long get(final int i) {
+        return offHeap ? buffer.get(i) : table[i];
+    }
+
+    /**
+     * Stores a key in the given slot.
+     */
+    private void put(final int i, final long key) {
+        if (offHeap) {
+            buffer.put(i, key);
+        } else {
+            table[i] = key;
+        }
+    }
+}
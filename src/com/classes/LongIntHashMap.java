@@ -0,0 +1,118 @@
+package com.classes;
+
+/**
+ * LongIntHashMap is an open-addressing (linear probing) map from packed board states to an int, such as the best
+ * known depth of a state. It works like LongHashSet with a second array for the values, so no keys or values are
+ * boxed.
+ */
+class LongIntHashMap {
+
+    /* Global Variables: */
+    private static final int DEFAULT_CAPACITY = 1 << 12;
+    private static final int MAX_CAPACITY = 1 << 28;
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+
+    /**
+     * LongIntHashMap constructor with the default starting capacity.
+     */
+    LongIntHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Returns the value stored for the given key, or the given default if the key isn't in the map.
+     */
+    int get(final long key, final int defaultValue) {
+        int i = indexOf(key);
+        while (true) {
+            long current = keys[i];
+            if (current == key) {
+                return values[i];
+            }
+            if (current == EMPTY) {
+                return defaultValue;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Stores the value for the given key, replacing any value already stored.
+     */
+    void put(final long key, final int value) {
+        int i = indexOf(key);
+        while (true) {
+            long current = keys[i];
+            if (current == key) {
+                values[i] = value;
+                return;
+            }
+            if (current == EMPTY) {
+                break;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        if (++size > resizeAt) {
+            grow();
+        }
+    }
+
+    /**
+     * Returns the number of keys in the map.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the first slot to probe for the given key.
+     */
+    private int indexOf(final long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * Doubles the table and re-inserts every entry.
+     */
+    private void grow() {
+        int oldCapacity = mask + 1;
+        if (oldCapacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("LongIntHashMap cannot grow past " + MAX_CAPACITY + " slots");
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        allocate(oldCapacity << 1);
+        for (int j = 0; j < oldCapacity; j++) {
+            long key = oldKeys[j];
+            if (key != EMPTY) {
+                int i = indexOf(key);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Allocates an empty table with the given (power of two) number of slots.
+     */
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = capacity / 4 * 3;
+    }
+}
@@ -1,12 +1,10 @@
 package com.classes;
 
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.Map;
 import java.util.Set;
-import java.util.Arrays;
-import java.util.Stack;
-import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Controller class for the program. Reads input, checks for solvability and passes input to specified search algorithm.
@@ -14,115 +12,151 @@ import java.util.PriorityQueue;
 public class Main {
 
     /* Global Variables: */
-    private static final String[][] GOAL_STATES = new String[2][16];
-
-    private static Node root;
-    private static boolean solutionFound;
-    private static int numCreated;
-    private static int numExpanded;
-    private static int maxFringe;
-    private static Set<String> visitedBoards;
+    private static final Map<BoardShape, Board[]> GOAL_STATES = new ConcurrentHashMap<>();
+    private static final boolean OFF_HEAP_VISITED = Boolean.getBoolean("puzzle.offHeapVisited");
+    private static final String OPEN_LIST = System.getProperty("puzzle.openList", "");
+    static final int THREADS = Integer.getInteger("puzzle.threads", Runtime.getRuntime().availableProcessors());
+    private static final long PROGRESS_INTERVAL = Long.getLong("puzzle.progress", 0);
+    private static final Set<String> OPTIMAL_METHODS = new HashSet<>(
+            Arrays.asList("BFS", "ParBFS", "ExtBFS", "BiBFS", "MM"));
+    private static final Set<String> OPTIMAL_WITH_ADMISSIBLE_HEURISTIC = new HashSet<>(
+            Arrays.asList("AStar", "HDAStar", "IDAStar"));
+    private static final Board.Move[] MOVES = Board.Move.values();
+    private static final int FOUND = -1;
+    private static final int TIMED_OUT = Integer.MIN_VALUE;
 
     /**
-     * Tries to solve 15-puzzle board given using breadth-first search. If a solution is found, prints:
+     * Tries to solve 15-puzzle board given using breadth-first search. If a solution is found, records:
      * - The depth it was found at.
      * - The total number of nodes created.
      * - The total number of nodes expanded (checked for goal state).
      * - The size of the fringe at its largest.
-     *
-     * If no solution is found, prints (-1, 0, 0, 0).
+     * - The moves of the solution.
      */
-    private static void breadthFirst(final Board initial, final String[] goal) {
-        Queue<Node> q = new LinkedList<>();
-        solutionFound = false;
-        root = new Node(initial, 0);
-        visitedBoards = new HashSet<>();
-        numCreated = 1;
-        numExpanded = 0;
-        maxFringe = 0;
-        long startTime = System.currentTimeMillis();
-
-        q.add(root);
-        while (!q.isEmpty()) {
-            if (System.currentTimeMillis() - startTime > 120000) {
+    private static void breadthFirst(final Board initial, final Board goal, final SearchContext context) {
+        BoardShape shape = initial.getShape();
+        context.start(120000, OFF_HEAP_VISITED);
+        LongHashSet visitedBoards = context.getVisitedBoards();
+        // Nodes are added to the arena in the order BFS expands them, so the arena itself is the queue.
+        NodeArena arena = new NodeArena();
+        arena.addRoot(initial.getTiles(), 0);
+
+        int head = 0;
+        while (head < arena.size()) {
+            if (context.shouldStop()) {
                 break;
             }
-            if (q.size() > maxFringe) {
-                maxFringe = q.size();
-            }
-            Node node = q.remove();
-            numExpanded++;
-            visitedBoards.add(node.getBoard().toString());
-            if (Arrays.equals(goal, node.getBoard().getBoardAsLine())) {
-                solutionFound = true;
-                System.out.println(node.getDepth() + ", " + numCreated + ", " + numExpanded + ", " + maxFringe);
+            context.updateFringe(arena.size() - head);
+            int node = head++;
+            long tiles = arena.getState(node);
+            context.addExpanded();
+            visitedBoards.add(tiles);
+            if (tiles == goal.getTiles()) {
+                context.solved(arena.getDepth(node));
+                context.setPath(arena.getPath(node));
                 break;
             } else {
-                for (Board.Move move : Board.Move.values()) {
-                    if (node.getBoard().isLegalMove(move)) {
-                        Board newBoard = node.getBoard().moveSpaceTile(move);
-                        if (!visitedBoards.contains(newBoard.toString())) {
-                            numCreated++;
-                            q.add(new Node(newBoard, node.getDepth() + 1));
+                int space = Board.spaceIndexOf(tiles);
+                Board.Move[] moves = shape.movesFrom(space);
+                int[] targets = shape.targetsFrom(space);
+                for (int m = 0; m < moves.length; m++) {
+                    Board.Move move = moves[m];
+                    int target = targets[m];
+                    if (!arena.undoesLastMove(node, move)) {
+                        long child = Board.swapWithSpace(tiles, space, target);
+                        if (!visitedBoards.contains(child)) {
+                            context.addCreated();
+                            arena.add(child, node, arena.getDepth(node) + 1, 0, move);
+                        } else {
+                            context.addDuplicate();
                         }
                     }
                 }
             }
         }
-        if (!solutionFound) {
-            System.out.println("-1, 0, 0, 0");
-        }
     }
 
     /**
-     * Tries to solve 15-puzzle board given using depth-first/depth-limited search. If a solution is found, prints:
+     * Tries to solve 15-puzzle board given using depth-first/depth-limited search. One board is changed in place: each
+     * move is made on the way down and undone on the way back, and the only other state is one frame per depth (the
+     * move that led down from it and the index of the next move to try). Boards are only checked against the boards on
+     * the current path, so memory grows with the depth instead of with every board seen, and a depth limit never
+     * hides a board that was first reached too deep.
+     *
+     * Children are tried in Board.Move order and each one is created only when the search steps down to it. If a
+     * solution is found, records:
      * - The depth it was found at.
      * - The total number of nodes created.
      * - The total number of nodes expanded (checked for goal state).
-     * - The size of the fringe at its largest.
-     *
-     * If no solution is found, prints (-1, 0, 0, 0).
+     * - The size of the fringe at its largest (the deepest path).
+     * - The moves of the solution.
      */
-    private static void depthSearch(final Board initial, final String[] goal, final int... limit) {
-        Stack<Node> s = new Stack<>();
-        solutionFound = false;
-        root = new Node(initial, 0);
-        visitedBoards = new HashSet<>();
-        numCreated = 1;
-        numExpanded = 0;
-        maxFringe = 0;
-
-        s.push(root);
-        while (!s.empty()) {
-            if (s.size() > maxFringe) {
-                maxFringe = s.size();
+    private static void depthSearch(final Board initial, final Board goal, final SearchContext context,
+                                    final int... limit) {
+        BoardShape shape = initial.getShape();
+        context.start(120000, false);
+        LongHashSet onPath = context.getVisitedBoards();
+        int maxDepth = limit.length == 0 ? Integer.MAX_VALUE : limit[0];
+        byte[] madeMoves = new byte[64];
+        byte[] nextMoves = new byte[64];
+
+        long tiles = initial.getTiles();
+        int space = initial.getSpaceIndex();
+        int depth = 0;
+        onPath.add(tiles);
+        context.addExpanded();
+        context.updateFringe(1);
+        while (tiles != goal.getTiles()) {
+            if (context.shouldStop()) {
+                return;
             }
-            Node node = s.pop();
-            numExpanded++;
-            visitedBoards.add(node.getBoard().toString());
-            if (Arrays.equals(goal, node.getBoard().getBoardAsLine())) {
-                solutionFound = true;
-                System.out.println(node.getDepth() + ", " + numCreated + ", " + numExpanded + ", " + maxFringe);
-                break;
-            } else if (limit.length == 0 || node.getDepth() < limit[0]) {
-                Stack<Node> temp = new Stack<>();
-                for (Board.Move move : Board.Move.values()) {
-                    if (node.getBoard().isLegalMove(move)) {
-                        Board newBoard = node.getBoard().moveSpaceTile(move);
-                        if (!visitedBoards.contains(newBoard.toString())) {
-                            numCreated++;
-                            temp.push(new Node(newBoard, node.getDepth() + 1));
-                        }
-                    }
-                }
-                while (!temp.empty()) {
-                    s.push(temp.pop());
+            Board.Move[] moves = shape.movesFrom(space);
+            if (depth == maxDepth || nextMoves[depth] == moves.length) {
+                // Every move from here has been tried, so step back up by undoing the move that led here.
+                onPath.remove(tiles);
+                if (depth == 0) {
+                    return;
                 }
+                depth--;
+                int target = shape.moveTarget(space, MOVES[madeMoves[depth]].opposite());
+                tiles = Board.swapWithSpace(tiles, space, target);
+                space = target;
+                continue;
+            }
+
+            int m = nextMoves[depth]++;
+            Board.Move move = moves[m];
+            if (depth > 0 && move == MOVES[madeMoves[depth - 1]].opposite()) {
+                continue;
             }
+            int target = shape.targetsFrom(space)[m];
+            long child = Board.swapWithSpace(tiles, space, target);
+            if (onPath.contains(child)) {
+                context.addDuplicate();
+                continue;
+            }
+
+            context.addCreated();
+            if (depth + 1 == madeMoves.length) {
+                madeMoves = Arrays.copyOf(madeMoves, madeMoves.length << 1);
+                nextMoves = Arrays.copyOf(nextMoves, nextMoves.length << 1);
+            }
+            madeMoves[depth] = (byte) move.ordinal();
+            depth++;
+            nextMoves[depth] = 0;
+            tiles = child;
+            space = target;
+            onPath.add(tiles);
+            context.addExpanded();
+            context.updateFringe(depth + 1);
         }
-        if (!solutionFound) {
-            System.out.println("-1, 0, 0, 0");
+
+        StringBuilder path = new StringBuilder(depth);
+        for (int i = 0; i < depth; i++) {
+            path.append(MOVES[madeMoves[i]]);
         }
+        context.solved(depth);
+        context.setPath(path.toString());
     }
 
     /**
@@ -130,163 +164,306 @@ public class Main {
      * number of misplaced tiles on the board (h1) or the sum of the manhattan distances between where a tile is and
      * where it is supposed to be.
      *
-     * If a solution is found, prints:
+     * If a solution is found, records:
      * - The depth it was found at.
      * - The total number of nodes created.
      * - The total number of nodes expanded (checked for goal state).
      * - The size of the fringe at its largest.
-     *
-     * If no solution is found, prints (-1, 0, 0, 0).
+     * - The moves of the solution.
      */
-    private static void greedyBestFirst (final Board initial, final String[] goal, final String heuristic) {
-        PriorityQueue<Node> pq = new PriorityQueue<>(new Node.NodeHeuristicComparator());
-        solutionFound = false;
-        visitedBoards = new HashSet<>();
-        numCreated = 1;
-        numExpanded = 0;
-        maxFringe = 0;
-        root = new Node(initial, 0, heuristic.equals("h1")?initial.getH1(goal):initial.getH2(goal));
-        long startTime = System.currentTimeMillis();
-
-        pq.add(root);
+    private static void greedyBestFirst (final Board initial, final Board goal, final String heuristic,
+                                         final SearchContext context) {
+        NodeArena arena = new NodeArena();
+        OpenList pq = newOpenList(arena, false, heuristic);
+        BoardShape shape = initial.getShape();
+        context.start(90000, OFF_HEAP_VISITED);
+        LongHashSet visitedBoards = context.getVisitedBoards();
+        Heuristic h = Heuristic.forName(heuristic, goal);
+
+        pq.add(arena.addRoot(initial.getTiles(), h.evaluate(initial)));
         while(!pq.isEmpty()) {
-            if (System.currentTimeMillis() - startTime > 90000) {
+            if (context.shouldStop()) {
                 break;
             }
-            if (pq.size() > maxFringe) {
-                maxFringe = pq.size();
-            }
-            Node node = pq.remove();
-            numExpanded++;
-            visitedBoards.add(node.getBoard().toString());
-            if (Arrays.equals(goal, node.getBoard().getBoardAsLine())) {
-                solutionFound = true;
-                System.out.println(node.getDepth() + ", " + numCreated + ", " + numExpanded + ", " + maxFringe);
+            context.updateFringe(pq.size());
+            int node = pq.remove();
+            long tiles = arena.getState(node);
+            context.addExpanded();
+            visitedBoards.add(tiles);
+            if (tiles == goal.getTiles()) {
+                context.solved(arena.getDepth(node));
+                context.setPath(arena.getPath(node));
                 break;
             } else {
-                for (Board.Move move : Board.Move.values()) {
-                    if (node.getBoard().isLegalMove(move)) {
-                        Board newBoard = node.getBoard().moveSpaceTile(move);
-                        if (!visitedBoards.contains(newBoard.toString())) {
-                            numCreated++;
-                            pq.add(new Node(newBoard, node.getDepth() + 1, heuristic.equals("h1") ?
-                                                                                    newBoard.getH1(goal):
-                                                                                    newBoard.getH2(goal)));
+                int space = Board.spaceIndexOf(tiles);
+                Board.Move[] moves = shape.movesFrom(space);
+                int[] targets = shape.targetsFrom(space);
+                for (int m = 0; m < moves.length; m++) {
+                    Board.Move move = moves[m];
+                    int target = targets[m];
+                    if (!arena.undoesLastMove(node, move)) {
+                        long child = Board.swapWithSpace(tiles, space, target);
+                        if (!visitedBoards.contains(child)) {
+                            context.addCreated();
+                            int childH = h.evaluateChild(arena.getHeuristic(node), tiles, space, target);
+                            pq.add(arena.add(child, node, arena.getDepth(node) + 1, childH, move));
+                        } else {
+                            context.addDuplicate();
                         }
                     }
                 }
             }
         }
-        if (!solutionFound) {
-            System.out.println("-1, 0, 0, 0");
-        }
     }
 
     /**
-     * Tries to solve 15-puzzle board given using A* search. The given heuristic is either the total
-     * number of misplaced tiles on the board (h1) or the sum of the manhattan distances between where a tile is and
-     * where it is supposed to be.
+     * Tries to solve 15-puzzle board given using A* search with the named heuristic (see Heuristic.forName).
+     *
+     * The fewest moves known to reach each board are kept in a map, so a child is only added to the open list if it
+     * reaches its board in fewer moves than before, and an older node for the same board is skipped when it comes off
+     * the open list (lazy deletion). The search stops when the goal comes off the open list. That is only sure to be
+     * the shortest solution with a heuristic that never overestimates (lc, wd or h3); h1 and h2 count the space, so
+     * with them the first solution found can be longer than the shortest.
      *
-     * If a solution is found, prints:
+     * If a solution is found, records:
      * - The depth it was found at.
      * - The total number of nodes created.
      * - The total number of nodes expanded (checked for goal state).
      * - The size of the fringe at its largest.
-     *
-     * If no solution is found, prints (-1, 0, 0, 0).
+     * - The moves of the solution.
      */
-    private static void aStar (final Board initial, final String[] goal, final String heuristic) {
-        PriorityQueue<Node> pq = new PriorityQueue<>(new Node.NodeHeuristicComparator());
-        PriorityQueue<Node> solutions = new PriorityQueue<>(new Node.NodeHeuristicComparator());
-        visitedBoards = new HashSet<>();
-
-        root = new Node(initial, 0, heuristic.equals("h1") ? initial.getH1(goal) : initial.getH2(goal));
-        numCreated = 1;
-        numExpanded = 0;
-        maxFringe = 0;
-        solutionFound = false;
-        long startTime = System.currentTimeMillis();
-
-        pq.add(root);
+    private static void aStar (final Board initial, final Board goal, final String heuristic,
+                               final SearchContext context) {
+        NodeArena arena = new NodeArena();
+        OpenList pq = newOpenList(arena, true, heuristic);
+        BoardShape shape = initial.getShape();
+        context.start(60000, OFF_HEAP_VISITED);
+        LongHashSet visitedBoards = context.getVisitedBoards();
+        LongIntHashMap bestDepths = new LongIntHashMap();
+
+        Heuristic h = Heuristic.forName(heuristic, goal);
+        pq.add(arena.addRoot(initial.getTiles(), h.evaluate(initial)));
+        bestDepths.put(initial.getTiles(), 0);
         while (!pq.isEmpty()) {
-            if (System.currentTimeMillis() - startTime > 60000) {
+            if (context.shouldStop()) {
                 break;
             }
-            if (pq.size() > maxFringe) {
-                maxFringe = pq.size();
+            context.updateFringe(pq.size());
+            int node = pq.remove();
+            long tiles = arena.getState(node);
+            int depth = arena.getDepth(node);
+            // A board reached again in fewer moves leaves its older node in the open list, which is skipped here.
+            if (depth > bestDepths.get(tiles, depth) || visitedBoards.contains(tiles)) {
+                continue;
             }
-            Node node = pq.remove();
-            numExpanded++;
-            if (!solutions.isEmpty()) {
-                Node headSolution = solutions.remove();
-                solutions.add(headSolution);
-                if (headSolution.getHeuristic() <= node.getHeuristic()+node.getDepth()) {
-                    break;
+            int nodeH = arena.getHeuristic(node);
+            context.addExpanded();
+            if (tiles == goal.getTiles()) {
+                context.solved(depth);
+                context.setPath(arena.getPath(node));
+                break;
+            }
+            visitedBoards.add(tiles);
+            int space = Board.spaceIndexOf(tiles);
+            Board.Move[] moves = shape.movesFrom(space);
+            int[] targets = shape.targetsFrom(space);
+            for (int m = 0; m < moves.length; m++) {
+                Board.Move move = moves[m];
+                int target = targets[m];
+                if (!arena.undoesLastMove(node, move)) {
+                    long child = Board.swapWithSpace(tiles, space, target);
+                    if (depth + 1 < bestDepths.get(child, Integer.MAX_VALUE) && !visitedBoards.contains(child)) {
+                        bestDepths.put(child, depth + 1);
+                        int childH = h.evaluateChild(nodeH, tiles, space, target);
+                        pq.add(arena.add(child, node, depth + 1, childH, move));
+                        context.addCreated();
+                    } else {
+                        context.addDuplicate();
+                    }
                 }
             }
-            if (Arrays.equals(goal, node.getBoard().getBoardAsLine())) {
-                solutions.add(node);
+        }
+    }
+
+    /**
+     * Tries to solve 15-puzzle board given using hash-distributed A* search on every core (or -Dpuzzle.threads). The
+     * given heuristic is picked the same way as for A*, and the solution is still optimal.
+     *
+     * If a solution is found, records (summed over all worker threads):
+     * - The depth it was found at (as unproven if the search was stopped first).
+     * - The total number of nodes created.
+     * - The total number of nodes expanded (checked for goal state).
+     * - The size of the fringe at its largest (the sum of each worker's largest open list).
+     * - The moves of the solution.
+     */
+    private static void parallelAStar(final Board initial, final Board goal, final String heuristic,
+                                      final SearchContext context) {
+        context.start(60000, OFF_HEAP_VISITED);
+        ParallelAStar search = new ParallelAStar(goal, Heuristic.forName(heuristic, goal), THREADS, context);
+        int depth;
+        try {
+            depth = search.solve(initial);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            depth = -1;
+        }
+
+        context.setStatistics(search.getNumCreated(), search.getNumExpanded(), search.getMaxFringe());
+        context.updateVisited(search.getNumVisited());
+        if (depth >= 0) {
+            if (search.isStopped()) {
+                // Cheaper nodes may still have been waiting, so the solution isn't known to be the shortest.
+                context.setIncumbent(depth);
             } else {
-                visitedBoards.add(node.getBoard().toString());
-                for (Board.Move move : Board.Move.values()) {
-                    if (node.getBoard().isLegalMove(move)) {
-                        Board newBoard = node.getBoard().moveSpaceTile(move);
-                        if (!visitedBoards.contains(newBoard.toString())) {
-                            Node child = new Node(newBoard, node.getDepth() + 1, heuristic.equals("h1") ?
-                                    newBoard.getH1(goal) + (node.getDepth() + 1) :
-                                    newBoard.getH2(goal) + (node.getDepth() + 1));
-                            pq.add(child);
-                            numCreated++;
-                        }
-                    }
+                context.solved(depth);
+            }
+            context.setPath(search.getPath());
+        }
+    }
+
+    /**
+     * Tries to solve 15-puzzle board given using iterative-deepening A* search. Each iteration is a depth-first search
+     * that cuts off any node whose f = g + h is over the current bound; the next bound is the smallest f that was cut
+     * off. Only the current path is ever stored, and the board is updated and restored in place as moves are made and
+     * undone, so memory is proportional to the depth instead of the size of the frontier. The given heuristic is
+     * picked the same way as for A*.
+     *
+     * If a solution is found, records:
+     * - The depth it was found at.
+     * - The total number of nodes created (over all iterations).
+     * - The total number of nodes expanded (checked for goal state, over all iterations).
+     * - The size of the fringe at its largest (the longest path held at once).
+     * - The moves of the solution.
+     */
+    private static void iterativeDeepeningAStar(final Board initial, final Board goal, final String heuristic,
+                                                final SearchContext context) {
+        Heuristic h = Heuristic.forName(heuristic, goal);
+        context.start(60000, OFF_HEAP_VISITED);
+        int rootH = h.evaluate(initial);
+
+        int bound = rootH;
+        while (bound != Integer.MAX_VALUE) {
+            Board.Move[] path = new Board.Move[bound + 1];
+            int result = boundedSearch(initial.getTiles(), initial.getSpaceIndex(), 0, rootH, bound, null, path,
+                                       goal.getTiles(), initial.getShape(), h, context);
+            if (result == TIMED_OUT) {
+                break;
+            }
+            if (result < 0) {
+                context.solved(FOUND - result);
+                StringBuilder moves = new StringBuilder(FOUND - result);
+                for (int i = 0; i < FOUND - result; i++) {
+                    moves.append(path[i]);
                 }
+                context.setPath(moves.toString());
+                break;
             }
+            bound = result;
         }
-        if (!solutions.isEmpty()) {
-            Node bestNode = solutions.remove();
-            System.out.println(bestNode.getDepth() + ", " + numCreated + ", " + numExpanded + ", " + maxFringe);
-        } else {
-            System.out.println("-1, 0, 0, 0");
+    }
+
+    /**
+     * One depth-first iteration of IDA* below the given board. The move that led to this board is never undone
+     * straight away, since that would only go back to the parent. The moves made on the way down are written into
+     * path by depth, so after the goal is found path holds the solution.
+     *
+     * Returns the smallest f-value over the bound that was cut off (Integer.MAX_VALUE if none), TIMED_OUT, or
+     * FOUND - depth when the goal was reached at that depth.
+     */
+    private static int boundedSearch(final long tiles, final int space, final int depth, final int hValue,
+                                     final int bound, final Board.Move lastMove, final Board.Move[] path,
+                                     final long goal, final BoardShape shape, final Heuristic h,
+                                     final SearchContext context) {
+        int f = depth + hValue;
+        if (f > bound) {
+            return f;
+        }
+        context.addExpanded();
+        context.updateFringe(depth + 1);
+        context.updateVisited(depth + 1);
+        if (tiles == goal) {
+            return FOUND - depth;
+        }
+        if (context.shouldStop()) {
+            return TIMED_OUT;
+        }
+
+        int min = Integer.MAX_VALUE;
+        Board.Move[] moves = shape.movesFrom(space);
+        int[] targets = shape.targetsFrom(space);
+        for (int m = 0; m < moves.length; m++) {
+            Board.Move move = moves[m];
+            if (lastMove != null && move == lastMove.opposite()) {
+                continue;
+            }
+            int target = targets[m];
+            context.addCreated();
+            long child = Board.swapWithSpace(tiles, space, target);
+            path[depth] = move;
+            int result = boundedSearch(child, target, depth + 1, h.evaluateChild(hValue, tiles, space, target), bound,
+                                       move, path, goal, shape, h, context);
+            if (result < 0) {
+                return result;
+            }
+            if (result < min) {
+                min = result;
+            }
         }
+        return min;
+    }
+
+    /**
+     * Returns a new open list for GBFS (orderByF false) or A* (orderByF true) over the nodes in the given arena, using
+     * the given heuristic. Buckets are used with the admissible heuristics, where the order of ties can't change the
+     * solution's length. h1 and h2 can overestimate, so there the order of ties decides which solution is found, and
+     * they keep the binary heap, which breaks ties as the original PriorityQueue did. -Dpuzzle.openList=heap or
+     * =bucket picks one for every heuristic.
+     */
+    private static OpenList newOpenList(final NodeArena arena, final boolean orderByF, final String heuristic) {
+        if ("heap".equals(OPEN_LIST) || (!"bucket".equals(OPEN_LIST) && !Heuristic.isAdmissible(heuristic))) {
+            return new HeapOpenList(arena, orderByF);
+        }
+        return new BucketOpenList(arena, orderByF);
+    }
+
+    /**
+     * Returns the two goal board states for the given shape: the tiles in order followed by the space, and the same
+     * with the last two tiles swapped. For 4x4 these are [1,2,3,4,5,6,7,8,9,A,B,C,D,E,F, ] and
+     * [1,2,3,4,5,6,7,8,9,A,B,C,D,F,E, ].
+     */
+    private static Board[] goalStates(final BoardShape shape) {
+        String[] line = new String[shape.getCells()];
+        for (int i = 0; i < line.length - 1; i++) {
+            line[i] = String.valueOf(Character.toUpperCase(Character.forDigit(i + 1, 36)));
+        }
+        line[line.length - 1] = " ";
+        Board goal = new Board(shape, line);
+
+        String last = line[line.length - 2];
+        line[line.length - 2] = line[line.length - 3];
+        line[line.length - 3] = last;
+        return new Board[] {goal, new Board(shape, line)};
     }
 
     /**
      * Determines which of the goal board states that the given board is solvable to.
      *
-     * If the evenness of the total number of inversions matches the evenness of the row that the space character is on,
-     * then the board is solvable to the following goal state: [1,2,3,4,5,6,7,8,9,A,B,C,D,F,E, ].
-     * Otherwise, the board is solvable to the other goal state: [1,2,3,4,5,6,7,8,9,A,B,C,D,E,F, ]
+     * On a board with an odd number of columns, the board is solvable to the first goal state (tiles in order) if the
+     * total number of inversions is even. On a board with an even number of columns, the row of the space counts too:
+     * it is solvable to the first goal state if the number of inversions plus the row the space is on, counting up
+     * from 1 at the bottom, is odd. Otherwise, the board is solvable to the other goal state (last two tiles swapped).
      */
     private static int solvable(final Board board) {
-        String[] boardAsStringArray = board.getBoardAsLine();
-        int[] boardAsIntArray = new int[boardAsStringArray.length];
-        int spaceRow = board.getSpaceCoordinates()[0];
+        BoardShape shape = board.getShape();
+        int spaceRowFromBottom = shape.getRows() - board.getSpaceCoordinates()[0];
         int inversions = 0;
 
-        for (int i = 0; i < boardAsStringArray.length; i++) {
-            if (" ".equals(boardAsStringArray[i])) {
-                boardAsIntArray[i] = 99;
-            } else if ("A".equals(boardAsStringArray[i])) {
-                boardAsIntArray[i] = 10;
-            } else if ("B".equals(boardAsStringArray[i])) {
-                boardAsIntArray[i] = 11;
-            } else if ("C".equals(boardAsStringArray[i])) {
-                boardAsIntArray[i] = 12;
-            } else if ("D".equals(boardAsStringArray[i])) {
-                boardAsIntArray[i] = 13;
-            } else if ("E".equals(boardAsStringArray[i])) {
-                boardAsIntArray[i] = 14;
-            } else if ("F".equals(boardAsStringArray[i])) {
-                boardAsIntArray[i] = 15;
-            } else {
-                boardAsIntArray[i] = Integer.parseInt(boardAsStringArray[i]);
-            }
-        }
-
-        for (int i = 0; i < boardAsIntArray.length; i++) {
-            if (boardAsIntArray[i] < 16) {
-                for (int j = i + 1; j < boardAsIntArray.length; j++) {
-                    if (boardAsIntArray[i] > boardAsIntArray[j]) {
+        for (int i = 0; i < shape.getCells(); i++) {
+            int tile = board.getTile(i);
+            if (tile != 0) {
+                for (int j = i + 1; j < shape.getCells(); j++) {
+                    int other = board.getTile(j);
+                    if (other != 0 && tile > other) {
                         inversions++;
                     }
                 }
@@ -294,7 +471,10 @@ public class Main {
         }
 
         boolean evenNumInversions = inversions % 2 == 0;
-        boolean spaceOnOddRowFromBot = spaceRow % 2 == 1;
+        if (shape.getCols() % 2 == 1) {
+            return evenNumInversions ? 0 : 1;
+        }
+        boolean spaceOnOddRowFromBot = spaceRowFromBottom % 2 == 1;
 
         if (evenNumInversions == spaceOnOddRowFromBot) {
             return 0;
@@ -303,38 +483,177 @@ public class Main {
         }
     }
 
+    /**
+     * Solves the given board with the given search method and option, recording the statistics in the given context.
+     * Throws an IllegalArgumentException if the search method isn't known, or if the board is over 16 cells and the
+     * search method isn't IDA* (the only search that doesn't need the boards packed into longs).
+     *
+     * If -Dpuzzle.cacheDir is set, searches that always find the shortest solution first look the board up in the
+     * SolutionCache, and a hit is reported as solved with no nodes expanded. Their new solutions are added to it.
+     * A*, HDA* and IDA* only count as such with a heuristic that never overestimates (lc, wd or h3).
+     */
+    static void solve(final Board initial, final String searchMethod, final String searchOption,
+                      final SearchContext context) {
+        if (!initial.getShape().isPacked() && !"IDAStar".equals(searchMethod)) {
+            throw new IllegalArgumentException(initial.getShape() + " boards can only be solved with IDAStar");
+        }
+        Board goal = GOAL_STATES.computeIfAbsent(initial.getShape(), Main::goalStates)[solvable(initial)];
+        context.setDescription(searchOption.isEmpty() ? searchMethod : searchMethod + " " + searchOption);
+        SolutionCache cache = isOptimal(searchMethod, searchOption) ? SolutionCache.shared() : null;
+        String cached = cache == null ? null : cache.lookup(initial, goal);
+        if (cached != null) {
+            context.start(0, false);
+            context.solved(cached.length());
+            context.setPath(cached);
+            context.finish();
+            return;
+        }
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        SolverMetrics.solveStarted();
+        try {
+            switch (searchMethod) {
+                case "BFS":
+                    breadthFirst(initial, goal, context);
+                    break;
+                case "ParBFS":
+                    ParallelBreadthFirstSearch.search(initial, goal, context);
+                    break;
+                case "DFS":
+                    depthSearch(initial, goal, context);
+                    break;
+                case "GBFS":
+                    greedyBestFirst(initial, goal, searchOption, context);
+                    break;
+                case "AStar":
+                    aStar(initial, goal, searchOption, context);
+                    break;
+                case "WAStar":
+                    WeightedSearch.weightedAStar(initial, goal, searchOption, context);
+                    break;
+                case "ARAStar":
+                    WeightedSearch.anytimeRepairingAStar(initial, goal, searchOption, context);
+                    break;
+                case "Beam":
+                    BeamSearch.beamSearch(initial, goal, searchOption, context);
+                    break;
+                case "BeamStack":
+                    BeamSearch.beamStackSearch(initial, goal, searchOption, context);
+                    break;
+                case "HDAStar":
+                    parallelAStar(initial, goal, searchOption, context);
+                    break;
+                case "ExtBFS":
+                    ExternalBreadthFirstSearch.search(initial, goal, context);
+                    break;
+                case "BiBFS":
+                    BidirectionalSearch.breadthFirst(initial, goal, context);
+                    break;
+                case "MM":
+                    BidirectionalSearch.meetInTheMiddle(initial, goal, searchOption, context);
+                    break;
+                case "IDAStar":
+                    if (initial.getShape().isPacked()) {
+                        iterativeDeepeningAStar(initial, goal, searchOption, context);
+                    } else {
+                        WideBoardSearch.iterativeDeepeningAStar(initial, goal, searchOption, context);
+                    }
+                    break;
+                case "DLS":
+                    depthSearch(initial, goal, context, Integer.parseInt(searchOption));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown search method: " + searchMethod);
+            }
+            if (cache != null && context.getPath() != null
+                && context.toResult().getStatus() == SolveResult.Status.SOLVED) {
+                cache.store(initial, goal, context.getPath());
+            }
+            context.finish();
+        } finally {
+            SolverMetrics.solveFinished();
+            event.end();
+            if (event.shouldCommit()) {
+                event.description = context.getDescription();
+                event.solved = context.isSolutionFound();
+                event.depth = context.getDepth();
+                event.expanded = context.getNumExpanded();
+                event.created = context.getNumCreated();
+                event.maxFringe = context.getMaxFringe();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Returns whether the given search method with the given option always finds the shortest solution: the uninformed
+     * searches and MM always do, A*, HDA* and IDA* only with a heuristic that never overestimates.
+     */
+    private static boolean isOptimal(final String searchMethod, final String searchOption) {
+        return OPTIMAL_METHODS.contains(searchMethod)
+               || (OPTIMAL_WITH_ADMISSIBLE_HEURISTIC.contains(searchMethod) && Heuristic.isAdmissible(searchOption));
+    }
+
+    /**
+     * Solves the given board the same way, for callers with a per-request deadline such as a service. The solve stops
+     * by the deadline (as System.currentTimeMillis, or 0 for the search method's own limit) or as soon as the token
+     * (which may be null) is cancelled, and the result says which happened and holds the statistics so far.
+     */
+    static SolveResult solve(final Board initial, final String searchMethod, final String searchOption,
+                             final long deadlineMillis, final CancellationToken token) {
+        SearchContext context = newContext(0);
+        context.setDeadline(deadlineMillis);
+        context.setCancellationToken(token);
+        solve(initial, searchMethod, searchOption, context);
+        return context.toResult();
+    }
+
+    /**
+     * Returns a new context with the given time limit (0 for each search method's own limit). If -Dpuzzle.progress
+     * gives an interval in milliseconds, progress is printed to standard error at that interval.
+     */
+    static SearchContext newContext(final long timeLimit) {
+        SearchContext context = new SearchContext(timeLimit);
+        if (PROGRESS_INTERVAL > 0) {
+            context.setProgressListener(ProgressListener.toStandardError(), PROGRESS_INTERVAL);
+        }
+        return context;
+    }
+
     /**
      * Main method and controller method for class. Takes input arguments and passes them to relevant search method to
-     * be solved.
+     * be solved, or runs batch mode if the first argument is --batch and server mode if it is --serve. Searches that
+     * record the solution's moves have them printed on a second line. -Dpuzzle.jmx=true registers the SolverMetrics
+     * MBean.
      */
     public static void main(String[] args) {
-        GOAL_STATES[0] = "123456789ABCDEF ".split("");
-        GOAL_STATES[1] = "123456789ABCDFE ".split("");
+        if (Boolean.getBoolean("puzzle.jmx")) {
+            SolverMetrics.register();
+        }
+        if ("--batch".equals(args[0])) {
+            BatchSolver.main(args);
+            return;
+        }
+        if ("--serve".equals(args[0])) {
+            SolverServer.main(args);
+            return;
+        }
 
-        Board initial = new Board(args[0].split(""));
+        Board initial = SolveRequest.parseBoard(args[0]);
         String searchMethod = args[1];
         String searchOption = "";
         if (args.length > 2) {
             searchOption = args[2];
         }
 
-        int goalNum = solvable(initial);
-        switch (searchMethod) {
-            case "BFS":
-                breadthFirst(initial, GOAL_STATES[goalNum]);
-                break;
-            case "DFS":
-                depthSearch(initial, GOAL_STATES[goalNum]);
-                break;
-            case "GBFS":
-                greedyBestFirst(initial, GOAL_STATES[goalNum], searchOption);
-                break;
-            case "AStar":
-                aStar(initial, GOAL_STATES[goalNum], searchOption);
-                break;
-            case "DLS":
-                depthSearch(initial, GOAL_STATES[goalNum], Integer.parseInt(searchOption));
-                break;
+        SearchContext context = newContext(0);
+        solve(initial, searchMethod, searchOption, context);
+        System.out.println(context);
+        if (context.getPath() != null) {
+            System.out.println(context.getPath());
+        }
+        if (context.getSuboptimalityBound() != 0) {
+            System.out.println("Within " + context.getSuboptimalityBound() + " times the shortest solution");
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package com.classes;
+
+import java.util.Arrays;
+
+/**
+ * NodeArena stores search nodes as parallel primitive arrays instead of one object per node. A node is an int handle
+ * (its index in the arena), and for each node the arena keeps the packed board, the parent's handle, the depth, the
+ * heuristic value and the move of the space that made it from its parent.
+ *
+ * The arrays are allocated in fixed-size chunks, so adding a node never copies the nodes already stored and each node
+ * costs the same 18 bytes no matter how large the search grows. Nodes are never removed: a search keeps its arena until
+ * it is over, and the handles of the nodes on a solution's path lead back to the root.
+ */
+class NodeArena {
+
+    /* Global Variables: */
+    static final int NO_PARENT = -1;
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final byte NO_MOVE = -1;
+    private static final Board.Move[] MOVES = Board.Move.values();
+
+    private long[][] states = new long[16][];
+    private int[][] parents = new int[16][];
+    private int[][] depths = new int[16][];
+    private byte[][] heuristics = new byte[16][];
+    private byte[][] moves = new byte[16][];
+    private int size;
+
+    /**
+     * Adds the root node of a search and returns its handle.
+     */
+    int addRoot(final long state, final int heuristic) {
+        return add(state, NO_PARENT, 0, heuristic, null);
+    }
+
+    /**
+     * Adds a node and returns its handle. The heuristic value must be from 0 to 255 and move is null for a root.
+     */
+    int add(final long state, final int parent, final int depth, final int heuristic, final Board.Move move) {
+        int chunk = size >>> CHUNK_BITS;
+        if (chunk == states.length) {
+            int length = chunk << 1;
+            states = Arrays.copyOf(states, length);
+            parents = Arrays.copyOf(parents, length);
+            depths = Arrays.copyOf(depths, length);
+            heuristics = Arrays.copyOf(heuristics, length);
+            moves = Arrays.copyOf(moves, length);
+        }
+        if (states[chunk] == null) {
+            states[chunk] = new long[CHUNK_SIZE];
+            parents[chunk] = new int[CHUNK_SIZE];
+            depths[chunk] = new int[CHUNK_SIZE];
+            heuristics[chunk] = new byte[CHUNK_SIZE];
+            moves[chunk] = new byte[CHUNK_SIZE];
+        }
+
+        int offset = size & CHUNK_MASK;
+        states[chunk][offset] = state;
+        parents[chunk][offset] = parent;
+        depths[chunk][offset] = depth;
+        heuristics[chunk][offset] = (byte) heuristic;
+        moves[chunk][offset] = move == null ? NO_MOVE : (byte) move.ordinal();
+        return size++;
+    }
+
+    /**
+     * Returns the packed board of the given node.
+     */
+    long getState(final int node) {
+        return states[node >>> CHUNK_BITS][node & CHUNK_MASK];
+    }
+
+    /**
+     * Returns the handle of the given node's parent, or NO_PARENT for a root.
+     */
+    int getParent(final int node) {
+        return parents[node >>> CHUNK_BITS][node & CHUNK_MASK];
+    }
+
+    /**
+     * Returns the depth of the given node.
+     */
+    int getDepth(final int node) {
+        return depths[node >>> CHUNK_BITS][node & CHUNK_MASK];
+    }
+
+    /**
+     * Returns the heuristic value of the given node.
+     */
+    int getHeuristic(final int node) {
+        return heuristics[node >>> CHUNK_BITS][node & CHUNK_MASK] & 0xFF;
+    }
+
+    /**
+     * Returns the move of the space that made the given node from its parent, or null for a root.
+     */
+    Board.Move getMove(final int node) {
+        byte move = moves[node >>> CHUNK_BITS][node & CHUNK_MASK];
+        return move == NO_MOVE ? null : MOVES[move];
+    }
+
+    /**
+     * Returns whether the given move would only undo the move that made the given node.
+     */
+    boolean undoesLastMove(final int node, final Board.Move next) {
+        byte move = moves[node >>> CHUNK_BITS][node & CHUNK_MASK];
+        return move != NO_MOVE && next == MOVES[move].opposite();
+    }
+
+    /**
+     * Returns the moves of the space from the root to the given node, one Board.Move letter per move (e.g. "RDLU").
+     */
+    String getPath(final int node) {
+        StringBuilder path = new StringBuilder();
+        for (int current = node; getParent(current) != NO_PARENT; current = getParent(current)) {
+            path.append(getMove(current));
+        }
+        return path.reverse().toString();
+    }
+
+    /**
+     * Returns the number of nodes in the arena.
+     */
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,35 @@
+package com.classes;
+
+/**
+ * OpenList interface for the fringe of the informed searches. The nodes are handles into a NodeArena, and come out
+ * smallest value first, where the value is either f = g + h (A*) or h alone (greedy best-first search).
+ */
+interface OpenList {
+
+    /**
+     * Adds a node to the open list.
+     */
+    void add(int node);
+
+    /**
+     * Removes and returns the node with the smallest value.
+     */
+    int remove();
+
+    /**
+     * Returns the node with the smallest value without removing it. The open list must not be empty.
+     */
+    int peek();
+
+    /**
+     * Returns the number of nodes in the open list.
+     */
+    int size();
+
+    /**
+     * Returns whether the open list is empty.
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
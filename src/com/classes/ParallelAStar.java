@@ -0,0 +1,370 @@
+package com.classes;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ParallelAStar is a hash-distributed A* (HDA*) search. Every board state is owned by one worker thread, picked by
+ * hashing the packed board. Each worker keeps its own node arena, open list and map of the best depth it has seen for
+ * the states it owns, and children owned by another worker are sent to that worker's lock-free inbox. A node's parent
+ * can be in another worker's arena, so parents are kept as global handles that also say which worker's arena. The
+ * handles are ints, so each worker's arena can hold at most about 2^31 / threads nodes, and the search fails with an
+ * IllegalStateException if one grows past that.
+ *
+ * Workers don't stop at the first goal. The cost of the best goal found so far is shared, and a worker only goes idle
+ * once everything left in its open list has f at or over that cost. The search is over when every worker is idle and
+ * no nodes are in flight, which is when the shared count of busy workers plus unreceived messages reaches 0. This
+ * keeps the solution optimal (for an admissible heuristic) no matter what order the workers run in.
+ *
+ * Each worker counts its own nodes and hands what it counted since last time to the context every 4096 expansions,
+ * so progress samples are taken while the search runs; the totals are set once all workers are done.
+ */
+class ParallelAStar {
+
+    /* Global Variables: */
+    private final Board goal;
+    private final BoardShape shape;
+    private final Heuristic heuristic;
+    private final SearchContext context;
+    private final Worker[] workers;
+    private final AtomicInteger bestCost = new AtomicInteger(Integer.MAX_VALUE);
+    private final AtomicLong pending;
+    private final int maxLocalNode;
+    private int bestGoal = NodeArena.NO_PARENT;
+    private int bestGoalDepth = Integer.MAX_VALUE;
+    private volatile boolean stopped;
+    private volatile boolean outOfHandles;
+
+    /**
+     * ParallelAStar constructor, takes the goal, the heuristic to use, the number of worker threads and the context
+     * whose time limit applies.
+     */
+    ParallelAStar(final Board goal, final Heuristic heuristic, final int threads, final SearchContext context) {
+        this.goal = goal;
+        this.shape = goal.getShape();
+        this.heuristic = heuristic;
+        this.context = context;
+        this.workers = new Worker[threads];
+        this.pending = new AtomicLong(threads);
+        this.maxLocalNode = (Integer.MAX_VALUE - (threads - 1)) / threads;
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+    }
+
+    /**
+     * Runs the search from the given board on all worker threads and waits for it to finish. Returns the depth of the
+     * best solution found, or -1 if none was found; if the search was stopped (see isStopped) a shorter one may
+     * remain. Throws an IllegalStateException if a worker ran out of node handles.
+     */
+    int solve(final Board initial) throws InterruptedException {
+        workers[ownerOf(initial.getTiles())].receive(initial.getTiles(), NodeArena.NO_PARENT, 0,
+                                                     heuristic.evaluate(initial), null);
+        workers[ownerOf(initial.getTiles())].numCreated++;
+
+        Thread[] threads = new Thread[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            threads[i] = new Thread(workers[i], "hda-worker-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (outOfHandles) {
+            throw new IllegalStateException("HDA* ran out of node handles: a worker's arena holds over "
+                                            + maxLocalNode + " nodes with " + workers.length + " threads");
+        }
+
+        int cost = bestCost.get();
+        return cost == Integer.MAX_VALUE ? -1 : cost;
+    }
+
+    /**
+     * Returns whether the search was stopped (by the deadline or a cancellation) before it had ruled out every
+     * solution shorter than the best it found.
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Returns the moves of the best solution found, or null if none was found.
+     */
+    synchronized String getPath() {
+        if (bestGoal == NodeArena.NO_PARENT) {
+            return null;
+        }
+        StringBuilder path = new StringBuilder(bestGoalDepth);
+        for (int node = bestGoal; node != NodeArena.NO_PARENT; ) {
+            NodeArena arena = workers[node % workers.length].arena;
+            int local = node / workers.length;
+            if (arena.getMove(local) != null) {
+                path.append(arena.getMove(local));
+            }
+            node = arena.getParent(local);
+        }
+        return path.reverse().toString();
+    }
+
+    /**
+     * Keeps the given goal node (a global handle) if it is the cheapest found so far.
+     */
+    private synchronized void foundGoal(final int node, final int depth) {
+        if (depth < bestGoalDepth) {
+            bestGoal = node;
+            bestGoalDepth = depth;
+        }
+    }
+
+    /**
+     * Returns the total number of nodes created by all workers.
+     */
+    long getNumCreated() {
+        long total = 0;
+        for (Worker worker : workers) {
+            total += worker.numCreated;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total number of nodes expanded by all workers.
+     */
+    long getNumExpanded() {
+        long total = 0;
+        for (Worker worker : workers) {
+            total += worker.numExpanded;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total number of boards the workers have seen (each in the best-depth map of the worker owning it).
+     */
+    long getNumVisited() {
+        long total = 0;
+        for (Worker worker : workers) {
+            total += worker.bestDepth.size();
+        }
+        return total;
+    }
+
+    /**
+     * Returns the sum of every worker's largest open list. The workers don't peak at the same time, so this is an
+     * upper bound on the largest combined fringe.
+     */
+    long getMaxFringe() {
+        long total = 0;
+        for (Worker worker : workers) {
+            total += worker.maxFringe;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the index of the worker that owns the given packed board.
+     */
+    private int ownerOf(final long tiles) {
+        long h = tiles * 0x9E3779B97F4A7C15L;
+        return (int) ((h >>> 33) % workers.length);
+    }
+
+    /**
+     * A node sent to the worker that owns its board. The parent is a global handle.
+     */
+    private static final class Message {
+
+        /* Global Variables: */
+        private final long tiles;
+        private final int parent;
+        private final int depth;
+        private final int heuristic;
+        private final Board.Move move;
+
+        /**
+         * Message constructor.
+         */
+        Message(final long tiles, final int parent, final int depth, final int heuristic, final Board.Move move) {
+            this.tiles = tiles;
+            this.parent = parent;
+            this.depth = depth;
+            this.heuristic = heuristic;
+            this.move = move;
+        }
+    }
+
+    /**
+     * A worker thread with its own node arena, open list, best-depth map and inbox.
+     */
+    private class Worker implements Runnable {
+
+        /* Global Variables: */
+        private final int id;
+        private final Queue<Message> inbox = new ConcurrentLinkedQueue<>();
+        private final NodeArena arena = new NodeArena();
+        private final OpenList open = new BucketOpenList(arena, true);
+        private final LongIntHashMap bestDepth = new LongIntHashMap();
+        private long numCreated;
+        private long numExpanded;
+        private int maxFringe;
+        private long reportedCreated;
+        private long reportedExpanded;
+        private long reportedVisited;
+        private long reportedFringe;
+
+        /**
+         * Worker constructor.
+         */
+        Worker(final int id) {
+            this.id = id;
+        }
+
+        /**
+         * Worker loop: takes in any nodes sent by other workers, then expands the best node in the open list. Goes
+         * idle when nothing left is worth expanding and exits when the whole search is over.
+         */
+        @Override
+        public void run() {
+            boolean busy = true;
+            while (!stopped) {
+                Message message;
+                while ((message = inbox.poll()) != null) {
+                    receive(message.tiles, message.parent, message.depth, message.heuristic, message.move);
+                    if (busy) {
+                        pending.decrementAndGet();
+                    } else {
+                        // The message's count is handed over to this worker now being busy.
+                        busy = true;
+                    }
+                }
+
+                int node = nextNode();
+                if (node != NodeArena.NO_PARENT) {
+                    expand(node);
+                    continue;
+                }
+
+                if (busy) {
+                    busy = false;
+                    pending.decrementAndGet();
+                }
+                if (pending.get() == 0) {
+                    break;
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        /**
+         * Adds a node owned by this worker to its arena and open list if it reaches its board in fewer moves than
+         * before. The parent is a global handle.
+         */
+        private void receive(final long tiles, final int parent, final int depth, final int h,
+                             final Board.Move move) {
+            if (depth < bestDepth.get(tiles, Integer.MAX_VALUE)) {
+                bestDepth.put(tiles, depth);
+                open.add(arena.add(tiles, parent, depth, h, move));
+                if (open.size() > maxFringe) {
+                    maxFringe = open.size();
+                }
+            }
+        }
+
+        /**
+         * Returns the next node worth expanding, skipping nodes that were reached in fewer moves since they were
+         * added and nodes that can't beat the best solution. Returns NodeArena.NO_PARENT if there are none.
+         */
+        private int nextNode() {
+            while (!open.isEmpty()) {
+                int node = open.remove();
+                if (arena.getDepth(node) + arena.getHeuristic(node) >= bestCost.get()) {
+                    continue;
+                }
+                if (arena.getDepth(node) > bestDepth.get(arena.getState(node), Integer.MAX_VALUE)) {
+                    continue;
+                }
+                return node;
+            }
+            return NodeArena.NO_PARENT;
+        }
+
+        /**
+         * Returns the global handle of a node in this worker's arena.
+         */
+        private int globalHandle(final int node) {
+            return node * workers.length + id;
+        }
+
+        /**
+         * Hands the nodes counted since the last call to the context, which may take a progress sample.
+         */
+        private void reportProgress() {
+            long visited = bestDepth.size();
+            long fringe = open.size();
+            context.addProgress(numExpanded - reportedExpanded, numCreated - reportedCreated,
+                                visited - reportedVisited, fringe - reportedFringe);
+            reportedExpanded = numExpanded;
+            reportedCreated = numCreated;
+            reportedVisited = visited;
+            reportedFringe = fringe;
+        }
+
+        /**
+         * Checks the node for the goal state, or sends each of its children to the worker that owns it.
+         */
+        private void expand(final int node) {
+            numExpanded++;
+            if ((numExpanded & 0xFFF) == 0) {
+                reportProgress();
+                if (context.shouldStopNow()) {
+                    stopped = true;
+                    return;
+                }
+            }
+
+            if (node > maxLocalNode) {
+                // Its global handle wouldn't fit in an int, so it can't be recorded as a goal or a parent.
+                outOfHandles = true;
+                stopped = true;
+                return;
+            }
+
+            long tiles = arena.getState(node);
+            int depth = arena.getDepth(node);
+            if (tiles == goal.getTiles()) {
+                int best;
+                while (depth < (best = bestCost.get()) && !bestCost.compareAndSet(best, depth)) {
+                    Thread.onSpinWait();
+                }
+                foundGoal(globalHandle(node), depth);
+                return;
+            }
+
+            int nodeH = arena.getHeuristic(node);
+            int space = Board.spaceIndexOf(tiles);
+            Board.Move[] moves = shape.movesFrom(space);
+            int[] targets = shape.targetsFrom(space);
+            for (int m = 0; m < moves.length; m++) {
+                Board.Move move = moves[m];
+                int target = targets[m];
+                if (!arena.undoesLastMove(node, move)) {
+                    int childH = heuristic.evaluateChild(nodeH, tiles, space, target);
+                    if (depth + 1 + childH >= bestCost.get()) {
+                        continue;
+                    }
+                    numCreated++;
+                    long child = Board.swapWithSpace(tiles, space, target);
+                    int owner = ownerOf(child);
+                    if (owner == id) {
+                        receive(child, globalHandle(node), depth + 1, childH, move);
+                    } else {
+                        pending.incrementAndGet();
+                        workers[owner].inbox.add(new Message(child, globalHandle(node), depth + 1, childH, move));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.classes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * ParallelBreadthFirstSearch is a level-synchronous breadth-first search: each layer is split into chunks that are
+ * expanded at once on a ForkJoinPool of every core (or -Dpuzzle.threads), and the next layer is only started once the
+ * whole current layer is done.
+ *
+ * Every board ever reached is in one ConcurrentLongHashSet, and a child goes into the next layer only if the thread
+ * that made it is the one whose add put it in the set, so no board is in two layers or twice in one. Each chunk
+ * collects its children in its own buffer, and the buffers are joined after the layer and sorted. Sorting makes each
+ * layer the same whatever order the threads ran in, so the statistics are the same from run to run: the goal is
+ * looked up in each layer before it is expanded, and the nodes expanded are every earlier layer plus the boards before
+ * the goal in its own.
+ *
+ * Only the sorted layers are kept (a board's parent isn't), and the moves are found afterwards by walking back from
+ * the goal, each time to the first neighbor in the layer before.
+ */
+class ParallelBreadthFirstSearch {
+
+    /* Global Variables: */
+    private static final int MIN_CHUNK = 1 << 10;
+    private static final Board.Move[] MOVES = Board.Move.values();
+
+    private final long goal;
+    private final BoardShape shape;
+    private final SearchContext context;
+    private final ConcurrentLongHashSet visited = new ConcurrentLongHashSet();
+    private final List<long[]> layers = new ArrayList<>();
+
+    /**
+     * ParallelBreadthFirstSearch constructor, takes the goal board and the context to record in.
+     */
+    private ParallelBreadthFirstSearch(final Board goal, final SearchContext context) {
+        this.goal = goal.getTiles();
+        this.shape = goal.getShape();
+        this.context = context;
+    }
+
+    /**
+     * Tries to solve the given board with a breadth-first search that expands each layer in parallel. If a solution
+     * is found, records:
+     * - The depth it was found at.
+     * - The total number of nodes created (the boards in every layer made).
+     * - The total number of nodes expanded (checked for goal state).
+     * - The size of the fringe at its largest (the largest layer).
+     * - The moves of the solution.
+     */
+    static void search(final Board initial, final Board goal, final SearchContext context) {
+        context.start(120000, false);
+        ForkJoinPool pool = new ForkJoinPool(Main.THREADS);
+        try {
+            new ParallelBreadthFirstSearch(goal, context).run(initial.getTiles(), pool);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Expands layer after layer until the goal is in one, a layer comes out empty or the time runs out.
+     */
+    private void run(final long initial, final ForkJoinPool pool) throws InterruptedException, ExecutionException {
+        long[] layer = {initial};
+        visited.ensureCapacity(1);
+        visited.add(initial);
+        long seen = 1;
+        long expanded = 0;
+        long maxFringe = 1;
+        context.updateFringe(1);
+        context.updateVisited(seen);
+
+        while (layer.length > 0) {
+            layers.add(layer);
+            int goalIndex = Arrays.binarySearch(layer, goal);
+            if (goalIndex >= 0) {
+                context.setStatistics(seen, expanded + goalIndex + 1, maxFringe);
+                context.updateVisited(seen);
+                context.solved(layers.size() - 1);
+                context.setPath(pathTo(goal));
+                return;
+            }
+            if (context.shouldStopNow()) {
+                break;
+            }
+
+            // Apart from the root, one neighbor of every board is its parent, which is already in the set.
+            visited.ensureCapacity(seen + (layers.size() == 1 ? MOVES.length : 3L * layer.length));
+            int chunk = Math.max(MIN_CHUNK, layer.length / (Main.THREADS * 4) + 1);
+            List<Callable<long[]>> tasks = new ArrayList<>();
+            for (int from = 0; from < layer.length; from += chunk) {
+                tasks.add(expander(layer, from, Math.min(layer.length, from + chunk)));
+            }
+            List<long[]> buffers = new ArrayList<>();
+            for (Future<long[]> result : pool.invokeAll(tasks)) {
+                buffers.add(result.get());
+            }
+            expanded += layer.length;
+            if (context.shouldStopNow()) {
+                break;
+            }
+
+            int expandedLayer = layer.length;
+            layer = join(buffers);
+            seen += layer.length;
+            maxFringe = Math.max(maxFringe, layer.length);
+            context.addProgress(expandedLayer, layer.length, layer.length, layer.length - expandedLayer);
+        }
+        context.setStatistics(seen, expanded, maxFringe);
+        context.updateVisited(seen);
+    }
+
+    /**
+     * Returns the task that expands the boards of the layer from index from up to to, returning the children it was
+     * the first to add to the visited set. It returns nothing once the search has been stopped.
+     */
+    private Callable<long[]> expander(final long[] layer, final int from, final int to) {
+        return () -> {
+            if (context.shouldStopNow()) {
+                return new long[0];
+            }
+            long[] children = new long[(to - from) * 3];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                long tiles = layer[i];
+                int space = Board.spaceIndexOf(tiles);
+                int[] targets = shape.targetsFrom(space);
+                for (int target : targets) {
+                    long child = Board.swapWithSpace(tiles, space, target);
+                    if (visited.add(child)) {
+                        if (size == children.length) {
+                            children = Arrays.copyOf(children, size << 1);
+                        }
+                        children[size++] = child;
+                    }
+                }
+            }
+            return Arrays.copyOf(children, size);
+        };
+    }
+
+    /**
+     * Returns the chunks' children joined into one sorted layer.
+     */
+    private static long[] join(final List<long[]> buffers) {
+        int total = 0;
+        for (long[] buffer : buffers) {
+            total += buffer.length;
+        }
+        long[] layer = new long[total];
+        int offset = 0;
+        for (long[] buffer : buffers) {
+            System.arraycopy(buffer, 0, layer, offset, buffer.length);
+            offset += buffer.length;
+        }
+        Arrays.parallelSort(layer);
+        return layer;
+    }
+
+    /**
+     * Returns the moves from the initial board to the given board in the last layer, walking back one layer at a time
+     * to the board's first neighbor (in Board.Move order) in the layer before.
+     */
+    private String pathTo(final long tiles) {
+        StringBuilder path = new StringBuilder(layers.size());
+        long current = tiles;
+        for (int layer = layers.size() - 2; layer >= 0; layer--) {
+            int space = Board.spaceIndexOf(current);
+            Board.Move[] moves = shape.movesFrom(space);
+            int[] targets = shape.targetsFrom(space);
+            for (int m = 0; m < moves.length; m++) {
+                long neighbor = Board.swapWithSpace(current, space, targets[m]);
+                if (Arrays.binarySearch(layers.get(layer), neighbor) >= 0) {
+                    // The space moved from the neighbor to this board by undoing the move that led to the neighbor.
+                    path.append(moves[m].opposite());
+                    current = neighbor;
+                    break;
+                }
+            }
+        }
+        return path.reverse().toString();
+    }
+}
@@ -0,0 +1,278 @@
+package com.classes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PatternDatabaseHeuristic is an additive (disjoint) pattern database heuristic (h3). The tiles are split into groups
+ * and, for each group, a table holds the exact number of moves of that group's tiles needed to bring them to their
+ * goal positions, wherever the other tiles are. Since every move only moves one tile, the values of the groups can be
+ * added together and still never overestimate.
+ *
+ * Each table is indexed by the positions of the group's tiles, 4 bits per tile. The tables are built once by a
+ * backward breadth-first search from the goal, saved to a binary file and memory-mapped on later runs, so several
+ * processes share a single copy through the page cache. The groups are laid out for the 4x4 board only.
+ */
+class PatternDatabaseHeuristic implements Heuristic {
+
+    /* Global Variables: */
+    private static final BoardShape SHAPE = BoardShape.FOUR_BY_FOUR;
+    private static final int CELLS = SHAPE.getCells();
+    private static final int[][] GROUPS = {{1, 2, 3, 5, 6}, {4, 7, 8, 11, 12}, {9, 10, 13, 14, 15}};
+    private static final int MAGIC = 0x50444231;
+    private static final int UNSEEN = 0xFF;
+    private static final File DIRECTORY = new File(System.getProperty("puzzle.pdbDir", "pdb"));
+    private static final Map<Long, PatternDatabaseHeuristic> LOADED = new HashMap<>();
+
+    private final int[] groupOf = new int[CELLS];
+    private final int[] shiftOf = new int[CELLS];
+    private final int[] offsets = new int[GROUPS.length];
+    private final MappedByteBuffer tables;
+
+    /**
+     * PatternDatabaseHeuristic constructor, maps the tables from the given file.
+     */
+    private PatternDatabaseHeuristic(final File file) {
+        int offset = 0;
+        for (int g = 0; g < GROUPS.length; g++) {
+            offsets[g] = offset;
+            for (int i = 0; i < GROUPS[g].length; i++) {
+                groupOf[GROUPS[g][i]] = g;
+                shiftOf[GROUPS[g][i]] = i << 2;
+            }
+            offset += 1 << (GROUPS[g].length << 2);
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            tables = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (tables.getInt(0) != MAGIC || tables.capacity() != Integer.BYTES + offset) {
+            throw new IllegalStateException("Pattern database " + file + " is corrupt, delete it to rebuild it");
+        }
+    }
+
+    /**
+     * Returns the pattern database for the given goal, building and saving it first if no file exists yet.
+     */
+    static synchronized PatternDatabaseHeuristic forGoal(final Board goal) {
+        PatternDatabaseHeuristic pdb = LOADED.get(goal.getTiles());
+        if (pdb == null) {
+            File file = new File(DIRECTORY, "pdb-555-" + Long.toHexString(goal.getTiles()) + ".bin");
+            if (!file.exists()) {
+                build(goal, file);
+            }
+            pdb = new PatternDatabaseHeuristic(file);
+            LOADED.put(goal.getTiles(), pdb);
+        }
+        return pdb;
+    }
+
+    /**
+     * Returns the sum of every group's table entry for the given board. The three groups' indexes are kept in locals
+     * so that a call allocates nothing.
+     */
+    @Override
+    public int evaluate(final long tiles) {
+        int first = 0;
+        int second = 0;
+        int third = 0;
+        for (int pos = 0; pos < CELLS; pos++) {
+            int tile = Board.tileAt(tiles, pos);
+            if (tile != 0) {
+                int bits = pos << shiftOf[tile];
+                switch (groupOf[tile]) {
+                    case 0:
+                        first |= bits;
+                        break;
+                    case 1:
+                        second |= bits;
+                        break;
+                    default:
+                        third |= bits;
+                        break;
+                }
+            }
+        }
+
+        return (tables.get(Integer.BYTES + offsets[0] + first) & 0xFF)
+               + (tables.get(Integer.BYTES + offsets[1] + second) & 0xFF)
+               + (tables.get(Integer.BYTES + offsets[2] + third) & 0xFF);
+    }
+
+    /**
+     * Builds every group's table for the given goal and writes them to the given file.
+     */
+    private static void build(final Board goal, final File file) {
+        int[] goalPos = new int[CELLS];
+        for (int pos = 0; pos < CELLS; pos++) {
+            goalPos[Board.tileAt(goal.getTiles(), pos)] = pos;
+        }
+
+        int size = 0;
+        for (int[] group : GROUPS) {
+            size += 1 << (group.length << 2);
+        }
+        ByteBuffer out = ByteBuffer.allocate(Integer.BYTES + size);
+        out.putInt(MAGIC);
+        for (int[] group : GROUPS) {
+            out.put(buildGroup(group, goalPos));
+        }
+        out.flip();
+
+        if (!DIRECTORY.isDirectory() && !DIRECTORY.mkdirs()) {
+            throw new UncheckedIOException(new IOException("Can't create " + DIRECTORY));
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!temp.renameTo(file)) {
+            throw new UncheckedIOException(new IOException("Can't move " + temp + " to " + file));
+        }
+    }
+
+    /**
+     * Builds the table for one group with a 0-1 breadth-first search backwards from the goal. The search states are
+     * the positions of the group's tiles plus the position of the space. Moving one of the group's tiles costs 1 and
+     * moving any other tile costs 0, and the table keeps the cheapest cost over all positions of the space.
+     */
+    private static byte[] buildGroup(final int[] group, final int[] goalPos) {
+        int k = group.length;
+        int patterns = 1 << (k << 2);
+        byte[] cost = new byte[patterns << 4];
+        Arrays.fill(cost, (byte) UNSEEN);
+
+        int start = 0;
+        for (int i = 0; i < k; i++) {
+            start |= goalPos[group[i]] << (i << 2);
+        }
+        int startState = (start << 4) | goalPos[0];
+        cost[startState] = 0;
+
+        IntDeque deque = new IntDeque();
+        deque.addFirst(startState);
+        while (!deque.isEmpty()) {
+            int state = deque.removeFirst();
+            int pattern = state >>> 4;
+            int space = state & 0xF;
+            int current = cost[state] & 0xFF;
+
+            Board.Move[] moves = SHAPE.movesFrom(space);
+            int[] targets = SHAPE.targetsFrom(space);
+            for (int m = 0; m < moves.length; m++) {
+                Board.Move move = moves[m];
+                int target = targets[m];
+                int moved = -1;
+                for (int i = 0; i < k; i++) {
+                    if (((pattern >>> (i << 2)) & 0xF) == target) {
+                        moved = i;
+                        break;
+                    }
+                }
+
+                int nextPattern = pattern;
+                int step = 0;
+                if (moved >= 0) {
+                    nextPattern = (pattern & ~(0xF << (moved << 2))) | (space << (moved << 2));
+                    step = 1;
+                }
+                int next = (nextPattern << 4) | target;
+                int nextCost = current + step;
+                if ((cost[next] & 0xFF) > nextCost) {
+                    cost[next] = (byte) nextCost;
+                    if (step == 0) {
+                        deque.addFirst(next);
+                    } else {
+                        deque.addLast(next);
+                    }
+                }
+            }
+        }
+
+        byte[] table = new byte[patterns];
+        for (int pattern = 0; pattern < patterns; pattern++) {
+            int best = UNSEEN;
+            for (int space = 0; space < CELLS; space++) {
+                best = Math.min(best, cost[(pattern << 4) | space] & 0xFF);
+            }
+            table[pattern] = (byte) best;
+        }
+        return table;
+    }
+
+    /**
+     * A growable ring buffer of ints used as the deque for the 0-1 breadth-first search.
+     */
+    private static class IntDeque {
+
+        /* Global Variables: */
+        private int[] items = new int[1 << 16];
+        private int head;
+        private int size;
+
+        /**
+         * Returns whether the deque is empty.
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Adds an item to the front of the deque.
+         */
+        void addFirst(final int item) {
+            ensureCapacity();
+            head = (head - 1) & (items.length - 1);
+            items[head] = item;
+            size++;
+        }
+
+        /**
+         * Adds an item to the back of the deque.
+         */
+        void addLast(final int item) {
+            ensureCapacity();
+            items[(head + size) & (items.length - 1)] = item;
+            size++;
+        }
+
+        /**
+         * Removes and returns the item at the front of the deque.
+         */
+        int removeFirst() {
+            int item = items[head];
+            head = (head + 1) & (items.length - 1);
+            size--;
+            return item;
+        }
+
+        /**
+         * Doubles the ring buffer when it is full, unrolling it so the head is at index 0.
+         */
+        private void ensureCapacity() {
+            if (size == items.length) {
+                int[] bigger = new int[items.length << 1];
+                for (int i = 0; i < size; i++) {
+                    bigger[i] = items[(head + i) & (items.length - 1)];
+                }
+                items = bigger;
+                head = 0;
+            }
+        }
+    }
+}
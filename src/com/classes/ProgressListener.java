@@ -0,0 +1,24 @@
+package com.classes;
+
+/**
+ * ProgressListener gets periodic progress samples from a running search (see SearchContext).
+ */
+interface ProgressListener {
+
+    /**
+     * Called about once per reporting interval with the context of the running search. Read the statistics from the
+     * context; don't keep it, since the search goes on changing it.
+     */
+    void onProgress(SearchContext context);
+
+    /**
+     * Returns a listener that prints one line per sample to standard error.
+     */
+    static ProgressListener toStandardError() {
+        return context -> System.err.println(String.format(
+                "progress [%s] %dms: expanded=%d (%.0f/s) created=%d duplicates=%d fringe=%d visited=%d heap=%dMB",
+                context.getDescription(), context.getElapsedMillis(), context.getNumExpanded(),
+                context.getExpansionRate(), context.getNumCreated(), context.getNumDuplicates(),
+                context.getCurrentFringe(), context.getNumVisited(), SearchContext.usedHeap() >> 20));
+    }
+}
@@ -0,0 +1,425 @@
+package com.classes;
+
+/**
+ * SearchContext holds everything that belongs to a single solve: the statistics printed at the end, the visited set
+ * and when to stop. Each solve gets its own context, so several boards can be solved at the same time in one JVM.
+ *
+ * A solve stops at its deadline (set directly, or from a time limit) or when its CancellationToken is cancelled.
+ * Searches call shouldStop once per node, and it only reads the clock and the token every 1024 calls, so the check
+ * costs a counter increment on almost every node. Once a solve has stopped it stays stopped.
+ *
+ * While the solve runs, the context also takes a progress sample at most once per reporting interval (checked every
+ * 1024 expansions so the clock is rarely read). Each sample is sent to the progress listener if one is set, committed
+ * as a SearchProgressEvent if Flight Recorder is recording it, and added to SolverMetrics if the MBean is registered.
+ * Searches that keep their own visited sets record their size here, and worker threads sharing the context hand in
+ * their counts every so often through addProgress, so every search's samples are complete.
+ */
+class SearchContext {
+
+    /* Global Variables: */
+    private static final int REPORT_STRIDE_MASK = 1024 - 1;
+    private static final int STOP_STRIDE_MASK = 1024 - 1;
+
+    private final long timeLimit;
+    private long fixedDeadline;
+    private long deadline = Long.MAX_VALUE;
+    private CancellationToken cancellationToken;
+    private int stopChecks;
+    private volatile SolveResult.Status stopReason;
+    private boolean solutionFound;
+    private int depth = -1;
+    private String path;
+    private double suboptimalityBound;
+    private long numCreated;
+    private long numExpanded;
+    private long numDuplicates;
+    private long maxFringe;
+    private long currentFringe;
+    private long numVisited;
+    private LongHashSet visitedBoards;
+
+    private String description = "";
+    private ProgressListener listener;
+    private long reportInterval = 1000;
+    private long startTime;
+    private long nextReport = Long.MAX_VALUE;
+    private long lastReportTime;
+    private long lastReportExpanded;
+    private long lastReportDuplicates;
+    private double expansionRate;
+
+    /**
+     * SearchContext constructor that uses each search method's own time limit.
+     */
+    SearchContext() {
+        this(0);
+    }
+
+    /**
+     * Alternate SearchContext constructor with a time limit in milliseconds that replaces the search method's own
+     * limit (0 keeps the search method's limit).
+     */
+    SearchContext(final long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Resets the statistics and starts the clock. The default limit (0 for none) is used unless this context was
+     * given its own limit or a deadline.
+     */
+    void start(final long defaultTimeLimit, final boolean offHeapVisited) {
+        long limit = timeLimit > 0 ? timeLimit : defaultTimeLimit;
+        startTime = System.currentTimeMillis();
+        if (fixedDeadline > 0) {
+            deadline = fixedDeadline;
+        } else {
+            deadline = limit > 0 ? startTime + limit : Long.MAX_VALUE;
+        }
+        stopChecks = 0;
+        stopReason = null;
+        solutionFound = false;
+        depth = -1;
+        path = null;
+        suboptimalityBound = 0;
+        numCreated = 1;
+        numExpanded = 0;
+        numDuplicates = 0;
+        maxFringe = 0;
+        currentFringe = 0;
+        numVisited = 0;
+        visitedBoards = new LongHashSet(0, offHeapVisited);
+        lastReportTime = startTime;
+        lastReportExpanded = 0;
+        lastReportDuplicates = 0;
+        expansionRate = 0;
+        nextReport = startTime + reportInterval;
+    }
+
+    /**
+     * Sets the time (as System.currentTimeMillis) the solve must stop by, which replaces any time limit. 0 removes it.
+     */
+    void setDeadline(final long deadlineMillis) {
+        this.fixedDeadline = deadlineMillis;
+    }
+
+    /**
+     * Sets the token another thread can cancel the solve with, or null for none.
+     */
+    void setCancellationToken(final CancellationToken token) {
+        this.cancellationToken = token;
+    }
+
+    /**
+     * Sets the listener that gets a progress sample about every intervalMillis while the search runs.
+     */
+    void setProgressListener(final ProgressListener listener, final long intervalMillis) {
+        this.listener = listener;
+        this.reportInterval = intervalMillis;
+    }
+
+    /**
+     * Sets a short description of the solve (method and option) used in progress samples.
+     */
+    void setDescription(final String description) {
+        this.description = description;
+    }
+
+    /**
+     * Takes a final progress sample once the search is over, so listeners see the finished totals.
+     */
+    void finish() {
+        report(System.currentTimeMillis());
+    }
+
+    /**
+     * Returns whether the search should stop, checking the deadline and the cancellation token only every 1024 calls.
+     * Searches call this once per node expanded.
+     */
+    boolean shouldStop() {
+        if ((++stopChecks & STOP_STRIDE_MASK) != 0) {
+            return stopReason != null;
+        }
+        return shouldStopNow();
+    }
+
+    /**
+     * Returns whether the search should stop, checking the deadline and the cancellation token straight away. Meant
+     * for checks that are already rare, such as once per BFS layer, and for worker threads sharing the context.
+     */
+    boolean shouldStopNow() {
+        if (stopReason == null) {
+            if (cancellationToken != null && cancellationToken.isCancelled()) {
+                stopReason = SolveResult.Status.CANCELLED;
+            } else if (System.currentTimeMillis() > deadline) {
+                stopReason = SolveResult.Status.TIMED_OUT;
+            }
+        }
+        return stopReason != null;
+    }
+
+    /**
+     * Returns the result of the solve so far: its solution and statistics, and whether it was solved, stopped by the
+     * deadline or a cancellation, or ran out of boards to search.
+     */
+    SolveResult toResult() {
+        SolveResult.Status status;
+        if (stopReason != null) {
+            status = stopReason;
+        } else {
+            status = solutionFound ? SolveResult.Status.SOLVED : SolveResult.Status.EXHAUSTED;
+        }
+        return new SolveResult(status, this);
+    }
+
+    /**
+     * Records that a solution was found at the given depth.
+     */
+    void solved(final int depth) {
+        this.solutionFound = true;
+        this.depth = depth;
+    }
+
+    /**
+     * Records the best solution a stopped search had found, which isn't known to be the one it was looking for (such
+     * as the shortest). Its depth and moves are kept, but the solve doesn't count as solved.
+     */
+    void setIncumbent(final int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Records the solution's moves, one Board.Move letter per move of the space.
+     */
+    void setPath(final String path) {
+        this.path = path;
+    }
+
+    /**
+     * Records that the solution is at most the given factor longer than the shortest one, for searches that trade
+     * solution length for speed.
+     */
+    void setSuboptimalityBound(final double bound) {
+        this.suboptimalityBound = bound;
+    }
+
+    /**
+     * Counts one more node created.
+     */
+    void addCreated() {
+        numCreated++;
+    }
+
+    /**
+     * Counts one more node expanded (checked for goal state). Returns the new count.
+     */
+    long addExpanded() {
+        if ((++numExpanded & REPORT_STRIDE_MASK) == 0) {
+            long now = System.currentTimeMillis();
+            if (now >= nextReport) {
+                report(now);
+            }
+        }
+        return numExpanded;
+    }
+
+    /**
+     * Counts one more child that was dropped because its board was already visited.
+     */
+    void addDuplicate() {
+        numDuplicates++;
+    }
+
+    /**
+     * Records the current size of the fringe, and keeps it if it is the largest so far.
+     */
+    void updateFringe(final long size) {
+        currentFringe = size;
+        if (size > maxFringe) {
+            maxFringe = size;
+        }
+    }
+
+    /**
+     * Records how many boards the search's own visited set (or sets) holds, for searches that don't use the context's.
+     */
+    void updateVisited(final long size) {
+        numVisited = size;
+    }
+
+    /**
+     * Counts nodes expanded and created, boards newly visited and the change in fringe size since the last call, and
+     * takes a progress sample if one is due. Worker threads sharing the context call this every so often instead of
+     * counting each node, so it can be called from several threads at once.
+     */
+    synchronized void addProgress(final long expanded, final long created, final long visited, final long fringe) {
+        numExpanded += expanded;
+        numCreated += created;
+        numVisited += visited;
+        updateFringe(currentFringe + fringe);
+        long now = System.currentTimeMillis();
+        if (now >= nextReport) {
+            report(now);
+        }
+    }
+
+    /**
+     * Takes a progress sample and passes it on to Flight Recorder, the MBean and the listener.
+     */
+    private void report(final long now) {
+        long elapsed = now - lastReportTime;
+        if (elapsed > 0) {
+            expansionRate = (numExpanded - lastReportExpanded) * 1000.0 / elapsed;
+        }
+        long newExpansions = numExpanded - lastReportExpanded;
+        long newDuplicates = numDuplicates - lastReportDuplicates;
+        lastReportTime = now;
+        lastReportExpanded = numExpanded;
+        lastReportDuplicates = numDuplicates;
+        nextReport = now + reportInterval;
+
+        SearchProgressEvent event = new SearchProgressEvent();
+        if (event.shouldCommit()) {
+            event.description = description;
+            event.expanded = numExpanded;
+            event.created = numCreated;
+            event.duplicates = numDuplicates;
+            event.fringe = currentFringe;
+            event.visited = getNumVisited();
+            event.expansionsPerSecond = expansionRate;
+            event.heapUsed = usedHeap();
+            event.commit();
+        }
+        SolverMetrics.record(this, newExpansions, newDuplicates);
+        if (listener != null) {
+            listener.onProgress(this);
+        }
+    }
+
+    /**
+     * Returns the number of bytes of heap currently in use.
+     */
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Replaces the statistics with totals gathered elsewhere, such as from several worker threads.
+     */
+    void setStatistics(final long numCreated, final long numExpanded, final long maxFringe) {
+        this.numCreated = numCreated;
+        this.numExpanded = numExpanded;
+        this.maxFringe = maxFringe;
+    }
+
+    /**
+     * Returns the visited set for this solve.
+     */
+    LongHashSet getVisitedBoards() {
+        return visitedBoards;
+    }
+
+    /**
+     * Returns whether a solution was found.
+     */
+    boolean isSolutionFound() {
+        return solutionFound;
+    }
+
+    /**
+     * Returns the depth the solution was found at, or -1 if none was found.
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the solution's moves, or null if the search didn't record them.
+     */
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns how many times longer than the shortest solution the solution can be at most, or 0 if the search
+     * didn't say (the shortest solution searches, and those with no guarantee).
+     */
+    double getSuboptimalityBound() {
+        return suboptimalityBound;
+    }
+
+    /**
+     * Returns the total number of nodes created.
+     */
+    long getNumCreated() {
+        return numCreated;
+    }
+
+    /**
+     * Returns the total number of nodes expanded.
+     */
+    long getNumExpanded() {
+        return numExpanded;
+    }
+
+    /**
+     * Returns the size of the fringe at its largest.
+     */
+    long getMaxFringe() {
+        return maxFringe;
+    }
+
+    /**
+     * Returns the number of children dropped because their board was already visited.
+     */
+    long getNumDuplicates() {
+        return numDuplicates;
+    }
+
+    /**
+     * Returns the size of the fringe the last time it was recorded.
+     */
+    long getCurrentFringe() {
+        return currentFringe;
+    }
+
+    /**
+     * Returns the number of boards the search holds as visited: the context's visited set, or the size last recorded
+     * by a search that keeps its own (for IDA*, the boards on the current path).
+     */
+    long getNumVisited() {
+        return numVisited + (visitedBoards == null ? 0 : visitedBoards.size());
+    }
+
+    /**
+     * Returns the expansions per second over the last reporting interval.
+     */
+    double getExpansionRate() {
+        return expansionRate;
+    }
+
+    /**
+     * Returns the milliseconds since the search started.
+     */
+    long getElapsedMillis() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Returns the description of the solve (method and option).
+     */
+    String getDescription() {
+        return description;
+    }
+
+    /**
+     * Returns the statistics as "depth, created, expanded, maxFringe", or "-1, 0, 0, 0" if no solution was found.
+     */
+    @Override
+    public String toString() {
+        if (!solutionFound) {
+            return "-1, 0, 0, 0";
+        }
+        return depth + ", " + numCreated + ", " + numExpanded + ", " + maxFringe;
+    }
+}
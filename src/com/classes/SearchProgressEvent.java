@@ -0,0 +1,43 @@
+package com.classes;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one progress sample of a running search. One is committed per reporting interval, not per
+ * expansion, so leaving it enabled costs next to nothing.
+ */
+@Name("com.classes.SearchProgress")
+@Label("Search Progress")
+@Category("15-Puzzle Solver")
+@Description("Periodic sample of a running search")
+class SearchProgressEvent extends jdk.jfr.Event {
+
+    @Label("Search")
+    String description;
+
+    @Label("Nodes Expanded")
+    long expanded;
+
+    @Label("Nodes Created")
+    long created;
+
+    @Label("Duplicates Pruned")
+    long duplicates;
+
+    @Label("Open List Size")
+    long fringe;
+
+    @Label("Visited Set Size")
+    long visited;
+
+    @Label("Expansions Per Second")
+    double expansionsPerSecond;
+
+    @Label("Heap Used")
+    @DataAmount
+    long heapUsed;
+}
@@ -0,0 +1,321 @@
+package com.classes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * SolutionCache remembers optimal solutions between runs, so a board that was solved before (or its mirror image) is
+ * answered without searching. It is only used when -Dpuzzle.cacheDir names a directory.
+ *
+ * Every solution is appended to a memory-mapped log, solutions.log, as the packed board, its shape and the moves of
+ * the space, and the header's end offset is moved past a record only once the record is written, so a run that dies
+ * part way through a write leaves the log as it was. Records are never changed or removed. When the log is opened,
+ * it is scanned once to index each board's record offset; the moves themselves are only read on a lookup, and the
+ * last -Dpuzzle.cacheSize (default 10000) solutions looked up or stored are kept decoded in memory.
+ *
+ * Several processes (such as a server, a batch run and the command line) can share one log. Every lookup and append
+ * holds a lock on the file (shared for a lookup, exclusive for an append) and first indexes any records other
+ * processes appended since, so an append always starts at the log's real end and never overwrites another's record.
+ *
+ * On a square board whose goal has the space on the diagonal, transposing the board (and renaming each tile to the
+ * goal tile at its transposed goal position) gives a board that is just as far from the same goal, solved by the same
+ * moves with R and D swapped, and L and U swapped. Each board is stored under the smaller of the two, so one solve
+ * answers both. Only boards of up to 16 cells are cached.
+ */
+class SolutionCache {
+
+    /* Global Variables: */
+    private static final String DIRECTORY = System.getProperty("puzzle.cacheDir");
+    private static final int MEMORY_ENTRIES = Integer.getInteger("puzzle.cacheSize", 10000);
+    private static final int MAGIC = 0x534F4C31;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int RECORD_BYTES = Long.BYTES + 3;
+    private static final int MAX_MOVES = 0xFF;
+    private static final int MIN_MAPPED = 1 << 20;
+    private static SolutionCache shared;
+    private static boolean opened;
+
+    private final File file;
+    private final FileChannel channel;
+    private final Map<BoardShape, LongIntHashMap> offsets = new HashMap<>();
+    private final Map<Key, String> recent;
+    private MappedByteBuffer log;
+    private int end;
+
+    /**
+     * SolutionCache constructor, opens (or creates) the log in the given file and indexes the records already in it.
+     * Up to memoryEntries solutions are kept decoded in memory.
+     */
+    SolutionCache(final File file, final int memoryEntries) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't create " + directory);
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE);
+        this.recent = new LinkedHashMap<Key, String>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, String> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+
+        FileLock lock = channel.lock();
+        try {
+            if (channel.size() == 0) {
+                log = channel.map(FileChannel.MapMode.READ_WRITE, 0, MIN_MAPPED);
+                log.putInt(0, MAGIC);
+                end = HEADER_BYTES;
+                log.putInt(Integer.BYTES, end);
+                return;
+            }
+            log = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (log.capacity() < HEADER_BYTES || log.getInt(0) != MAGIC) {
+                throw new IOException("Solution cache " + file + " is corrupt, delete it to start over");
+            }
+            end = HEADER_BYTES;
+            catchUp();
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Returns the cache in -Dpuzzle.cacheDir, opening it on first use, or null if no directory was given.
+     */
+    static synchronized SolutionCache shared() {
+        if (!opened) {
+            opened = true;
+            if (DIRECTORY != null) {
+                try {
+                    shared = new SolutionCache(new File(DIRECTORY, "solutions.log"), MEMORY_ENTRIES);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the cached optimal moves of the space from the initial board to the goal, or null if there are none.
+     */
+    synchronized String lookup(final Board initial, final Board goal) {
+        BoardShape shape = initial.getShape();
+        if (!shape.isPacked()) {
+            return null;
+        }
+        long transposed = transpose(initial.getTiles(), goal);
+        boolean flip = transposed < initial.getTiles();
+        String moves;
+        try {
+            FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+            try {
+                catchUp();
+                moves = read(shape, flip ? transposed : initial.getTiles());
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return moves == null || !flip ? moves : transposeMoves(moves);
+    }
+
+    /**
+     * Appends the optimal moves of the space from the initial board to the goal, unless the board (or its transpose)
+     * is already cached.
+     */
+    synchronized void store(final Board initial, final Board goal, final String moves) {
+        BoardShape shape = initial.getShape();
+        if (!shape.isPacked() || moves.length() > MAX_MOVES) {
+            return;
+        }
+        long transposed = transpose(initial.getTiles(), goal);
+        boolean flip = transposed < initial.getTiles();
+        long state = flip ? transposed : initial.getTiles();
+        String stored = flip ? transposeMoves(moves) : moves;
+        try {
+            FileLock lock = channel.lock();
+            try {
+                catchUp();
+                if (read(shape, state) == null) {
+                    append(shape, state, stored);
+                }
+            } finally {
+                lock.release();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Indexes the records other processes have appended since this one last looked, mapping more of the file if it
+     * has grown. Must be called holding a lock on the file.
+     */
+    private void catchUp() throws IOException {
+        int logEnd = log.getInt(Integer.BYTES);
+        if (logEnd > log.capacity()) {
+            log = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (logEnd < end || logEnd > log.capacity()) {
+            throw new IOException("Solution cache " + file + " is corrupt, delete it to start over");
+        }
+        for (int offset = end; offset < logEnd; offset += RECORD_BYTES + (log.get(offset + 10) & 0xFF)) {
+            BoardShape shape = BoardShape.of(log.get(offset + 8), log.get(offset + 9));
+            offsets.computeIfAbsent(shape, key -> new LongIntHashMap()).put(log.getLong(offset), offset);
+        }
+        end = logEnd;
+    }
+
+    /**
+     * Appends the record of the given board at the end of the log and moves the header's end past it. Must be called
+     * holding an exclusive lock on the file, after catchUp.
+     */
+    private void append(final BoardShape shape, final long state, final String stored) throws IOException {
+        int size = RECORD_BYTES + stored.length();
+        if ((long) end + size > log.capacity()) {
+            long capacity = Math.max((long) log.capacity() << 1, (long) end + size);
+            if (capacity > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Solution cache " + file + " is full");
+            }
+            log = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+        log.putLong(end, state);
+        log.put(end + 8, (byte) shape.getRows());
+        log.put(end + 9, (byte) shape.getCols());
+        log.put(end + 10, (byte) stored.length());
+        for (int i = 0; i < stored.length(); i++) {
+            log.put(end + RECORD_BYTES + i, (byte) stored.charAt(i));
+        }
+        offsets.computeIfAbsent(shape, key -> new LongIntHashMap()).put(state, end);
+        end += size;
+        log.putInt(Integer.BYTES, end);
+        recent.put(new Key(shape, state), stored);
+    }
+
+    /**
+     * Returns the moves stored for the given board, from memory if they were used recently and otherwise from the log.
+     */
+    private String read(final BoardShape shape, final long state) {
+        Key key = new Key(shape, state);
+        String moves = recent.get(key);
+        if (moves != null) {
+            return moves;
+        }
+        LongIntHashMap index = offsets.get(shape);
+        int offset = index == null ? -1 : index.get(state, -1);
+        if (offset < 0) {
+            return null;
+        }
+        char[] chars = new char[log.get(offset + 10) & 0xFF];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) log.get(offset + RECORD_BYTES + i);
+        }
+        moves = new String(chars);
+        recent.put(key, moves);
+        return moves;
+    }
+
+    /**
+     * Returns the packed board mirrored across the main diagonal with each tile renamed to the goal tile at the
+     * mirror of its own goal position, which is as far from the goal as the given board. Returns the board itself if
+     * the shape isn't square or the goal's space isn't on the diagonal.
+     */
+    static long transpose(final long tiles, final Board goal) {
+        BoardShape shape = goal.getShape();
+        int space = goal.getSpaceIndex();
+        if (shape.getRows() != shape.getCols() || shape.rowOf(space) != shape.colOf(space)) {
+            return tiles;
+        }
+        int[] goalPositions = goal.getPositions();
+        long transposed = 0L;
+        for (int pos = 0; pos < shape.getCells(); pos++) {
+            int tile = goal.getTile(mirror(shape, goalPositions[Board.tileAt(tiles, pos)]));
+            transposed |= ((long) tile) << (mirror(shape, pos) << 2);
+        }
+        return transposed;
+    }
+
+    /**
+     * Returns the cell mirrored across the main diagonal of a square shape.
+     */
+    private static int mirror(final BoardShape shape, final int index) {
+        return shape.colOf(index) * shape.getCols() + shape.rowOf(index);
+    }
+
+    /**
+     * Returns the moves mirrored across the main diagonal: R and D swapped, and L and U swapped.
+     */
+    static String transposeMoves(final String moves) {
+        char[] mirrored = moves.toCharArray();
+        for (int i = 0; i < mirrored.length; i++) {
+            switch (mirrored[i]) {
+                case 'R':
+                    mirrored[i] = 'D';
+                    break;
+                case 'D':
+                    mirrored[i] = 'R';
+                    break;
+                case 'L':
+                    mirrored[i] = 'U';
+                    break;
+                default:
+                    mirrored[i] = 'L';
+                    break;
+            }
+        }
+        return new String(mirrored);
+    }
+
+    /**
+     * Key is a board and its shape, the key of the in-memory entries.
+     */
+    private static final class Key {
+
+        /* Global Variables: */
+        private final BoardShape shape;
+        private final long state;
+
+        /**
+         * Key constructor.
+         */
+        Key(final BoardShape shape, final long state) {
+            this.shape = shape;
+            this.state = state;
+        }
+
+        /**
+         * Returns whether the other key has the same shape and board.
+         */
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return shape == key.shape && state == key.state;
+        }
+
+        /**
+         * Returns a hash code from the shape and board.
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(shape, state);
+        }
+    }
+}
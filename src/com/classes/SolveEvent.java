@@ -0,0 +1,34 @@
+package com.classes;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event spanning one whole solve, with its final statistics.
+ */
+@Name("com.classes.Solve")
+@Label("Solve")
+@Category("15-Puzzle Solver")
+@Description("One board solved with one search method")
+class SolveEvent extends jdk.jfr.Event {
+
+    @Label("Search")
+    String description;
+
+    @Label("Solution Found")
+    boolean solved;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes Expanded")
+    long expanded;
+
+    @Label("Nodes Created")
+    long created;
+
+    @Label("Max Fringe")
+    long maxFringe;
+}
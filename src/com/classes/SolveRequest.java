@@ -0,0 +1,119 @@
+package com.classes;
+
+/**
+ * SolveRequest is one board to solve along with its search method and option, written the same way as the command line
+ * arguments: the board characters, then the search method, then the option if the method needs one. For example
+ * "13452789 6BCDAEF AStar h2". A 4x4 board is just its 16 characters, and any other size starts with its dimensions,
+ * as in "3x3:1 3425786 BFS" or "2x4:1234567  DFS".
+ */
+class SolveRequest {
+
+    /* Global Variables: */
+    private final String boardText;
+    private final Board board;
+    private final String searchMethod;
+    private final String searchOption;
+
+    /**
+     * SolveRequest constructor.
+     */
+    SolveRequest(final String boardText, final String searchMethod, final String searchOption) {
+        this.boardText = boardText;
+        this.board = parseBoard(boardText);
+        this.searchMethod = searchMethod;
+        this.searchOption = searchOption;
+    }
+
+    /**
+     * Parses a request line. The board comes first (it may contain the space), followed by whitespace separated method
+     * and option. Throws an IllegalArgumentException if the line is malformed.
+     */
+    static SolveRequest parse(final String line) {
+        int prefix = shapePrefixEnd(line);
+        BoardShape shape = prefix < 0 ? BoardShape.FOUR_BY_FOUR : parseShape(line.substring(0, prefix));
+        int end = prefix + 1 + shape.getCells();
+        if (line.length() < end + 2) {
+            throw new IllegalArgumentException("Expected [<rows>x<cols>:]<board characters> <method> [option]: "
+                                               + line);
+        }
+        String[] rest = line.substring(end).trim().split("\\s+");
+        return new SolveRequest(line.substring(0, end), rest[0], rest.length > 1 ? rest[1] : "");
+    }
+
+    /**
+     * Returns the board for the given characters, optionally prefixed by "<rows>x<cols>:" (otherwise the board must be
+     * square). Checks that every tile (base 36 digits 1-9 then A-Z) and the space appear exactly once.
+     */
+    static Board parseBoard(final String text) {
+        int prefix = shapePrefixEnd(text);
+        String cells = text.substring(prefix + 1);
+        BoardShape shape = prefix < 0 ? BoardShape.square(cells.length()) : parseShape(text.substring(0, prefix));
+        if (cells.length() != shape.getCells()) {
+            throw new IllegalArgumentException(shape + " board must be " + shape.getCells() + " characters: \""
+                                               + text + "\"");
+        }
+        boolean[] seen = new boolean[shape.getCells()];
+        for (int i = 0; i < shape.getCells(); i++) {
+            char c = cells.charAt(i);
+            int tile = c == ' ' ? 0 : Character.digit(c, 36);
+            if (tile < 0 || tile >= seen.length || seen[tile]) {
+                throw new IllegalArgumentException("Board must hold each tile 1-" + (seen.length - 1)
+                                                   + " (base 36) and a space once: \"" + text + "\"");
+            }
+            seen[tile] = true;
+        }
+        return new Board(shape, cells.split(""));
+    }
+
+    /**
+     * Returns the index of the ':' ending a "<rows>x<cols>:" prefix, or -1 if the text doesn't start with one.
+     */
+    private static int shapePrefixEnd(final String text) {
+        int colon = text.indexOf(':');
+        return colon > 0 && text.substring(0, colon).matches("\\d+x\\d+") ? colon : -1;
+    }
+
+    /**
+     * Returns the shape for "<rows>x<cols>". Throws an IllegalArgumentException if it is too small or too large.
+     */
+    private static BoardShape parseShape(final String text) {
+        String[] dimensions = text.split("x");
+        return BoardShape.of(Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]));
+    }
+
+    /**
+     * Solves this request in the given context.
+     */
+    void solve(final SearchContext context) {
+        Main.solve(board, searchMethod, searchOption, context);
+    }
+
+    /**
+     * Solves this request by the given deadline (as System.currentTimeMillis, or 0 for the search method's own limit)
+     * unless the token (which may be null) is cancelled first, and returns the result.
+     */
+    SolveResult solve(final long deadlineMillis, final CancellationToken token) {
+        return Main.solve(board, searchMethod, searchOption, deadlineMillis, token);
+    }
+
+    /**
+     * Returns the board as it was given.
+     */
+    String getBoardText() {
+        return boardText;
+    }
+
+    /**
+     * Returns the search method.
+     */
+    String getSearchMethod() {
+        return searchMethod;
+    }
+
+    /**
+     * Returns the search option (empty if none was given).
+     */
+    String getSearchOption() {
+        return searchOption;
+    }
+}
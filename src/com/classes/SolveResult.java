@@ -0,0 +1,123 @@
+package com.classes;
+
+/**
+ * SolveResult is what a solve returns through Main.solve with a deadline: whether and why it stopped, the solution if
+ * one was found and the statistics gathered up to then. A solve that ran out of time or was cancelled still carries
+ * the nodes it created and expanded, and anytime searches (such as ARA*) carry the best solution found before they
+ * stopped.
+ */
+final class SolveResult {
+
+    /**
+     * Why the solve stopped.
+     */
+    enum Status {
+        SOLVED, EXHAUSTED, TIMED_OUT, CANCELLED
+    }
+
+    /* Global Variables: */
+    private final Status status;
+    private final int depth;
+    private final String path;
+    private final double suboptimalityBound;
+    private final long numCreated;
+    private final long numExpanded;
+    private final long numDuplicates;
+    private final long maxFringe;
+    private final long elapsedMillis;
+
+    /**
+     * SolveResult constructor, takes a copy of the statistics in the given context.
+     */
+    SolveResult(final Status status, final SearchContext context) {
+        this.status = status;
+        this.depth = context.getDepth();
+        this.path = context.getPath();
+        this.suboptimalityBound = context.getSuboptimalityBound();
+        this.numCreated = context.getNumCreated();
+        this.numExpanded = context.getNumExpanded();
+        this.numDuplicates = context.getNumDuplicates();
+        this.maxFringe = context.getMaxFringe();
+        this.elapsedMillis = context.getElapsedMillis();
+    }
+
+    /**
+     * Returns why the solve stopped. A timed out or cancelled solve may still hold a solution (see isSolved).
+     */
+    Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns whether a solution was found.
+     */
+    boolean isSolved() {
+        return depth >= 0;
+    }
+
+    /**
+     * Returns the solution's depth, or -1 if none was found.
+     */
+    int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the solution's moves, or null if none were recorded.
+     */
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns how many times longer than the shortest solution the solution can be at most, or 0 if the search
+     * didn't say.
+     */
+    double getSuboptimalityBound() {
+        return suboptimalityBound;
+    }
+
+    /**
+     * Returns the total number of nodes created.
+     */
+    long getNumCreated() {
+        return numCreated;
+    }
+
+    /**
+     * Returns the total number of nodes expanded.
+     */
+    long getNumExpanded() {
+        return numExpanded;
+    }
+
+    /**
+     * Returns the number of children dropped because their board was already visited.
+     */
+    long getNumDuplicates() {
+        return numDuplicates;
+    }
+
+    /**
+     * Returns the size of the fringe at its largest.
+     */
+    long getMaxFringe() {
+        return maxFringe;
+    }
+
+    /**
+     * Returns how long the solve ran in milliseconds.
+     */
+    long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Returns the status followed by "depth, created, expanded, maxFringe", which are kept even if no solution was
+     * found.
+     */
+    @Override
+    public String toString() {
+        return status + ": " + depth + ", " + numCreated + ", " + numExpanded + ", " + maxFringe;
+    }
+}
@@ -0,0 +1,158 @@
+package com.classes;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * SolverMetrics gathers the progress samples of every solve in the JVM and exposes them as the MBean
+ * com.classes:type=SolverMetrics. Nothing is gathered until register() is called (Main does so for -Dpuzzle.jmx=true).
+ */
+class SolverMetrics implements SolverMetricsMBean {
+
+    /* Global Variables: */
+    private static volatile SolverMetrics instance;
+
+    private final AtomicInteger activeSolves = new AtomicInteger();
+    private final LongAdder solvesCompleted = new LongAdder();
+    private final LongAdder totalExpanded = new LongAdder();
+    private final LongAdder totalDuplicates = new LongAdder();
+    private volatile double expansionsPerSecond;
+    private volatile long openListSize;
+    private volatile long visitedSetSize;
+    private volatile String lastSearch = "";
+    private long lastGcTime;
+    private long lastUptime;
+
+    /**
+     * Registers the MBean with the platform MBean server. Calling it again does nothing.
+     */
+    static synchronized void register() {
+        if (instance != null) {
+            return;
+        }
+        SolverMetrics metrics = new SolverMetrics();
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new StandardMBean(metrics, SolverMetricsMBean.class),
+                    new ObjectName("com.classes:type=SolverMetrics"));
+        } catch (JMException e) {
+            throw new IllegalStateException("Can't register SolverMetrics MBean", e);
+        }
+        instance = metrics;
+    }
+
+    /**
+     * Counts a solve as started.
+     */
+    static void solveStarted() {
+        SolverMetrics metrics = instance;
+        if (metrics != null) {
+            metrics.activeSolves.incrementAndGet();
+        }
+    }
+
+    /**
+     * Counts a solve as finished.
+     */
+    static void solveFinished() {
+        SolverMetrics metrics = instance;
+        if (metrics != null) {
+            metrics.activeSolves.decrementAndGet();
+            metrics.solvesCompleted.increment();
+        }
+    }
+
+    /**
+     * Adds a progress sample of the given context, which expanded newExpansions nodes and pruned newDuplicates
+     * children since its last sample.
+     */
+    static void record(final SearchContext context, final long newExpansions, final long newDuplicates) {
+        SolverMetrics metrics = instance;
+        if (metrics != null) {
+            metrics.totalExpanded.add(newExpansions);
+            metrics.totalDuplicates.add(newDuplicates);
+            metrics.expansionsPerSecond = context.getExpansionRate();
+            metrics.openListSize = context.getCurrentFringe();
+            metrics.visitedSetSize = context.getNumVisited();
+            metrics.lastSearch = context.getDescription();
+        }
+    }
+
+    @Override
+    public int getActiveSolves() {
+        return activeSolves.get();
+    }
+
+    @Override
+    public long getSolvesCompleted() {
+        return solvesCompleted.sum();
+    }
+
+    @Override
+    public long getTotalExpanded() {
+        return totalExpanded.sum();
+    }
+
+    @Override
+    public long getTotalDuplicates() {
+        return totalDuplicates.sum();
+    }
+
+    @Override
+    public double getExpansionsPerSecond() {
+        return expansionsPerSecond;
+    }
+
+    @Override
+    public long getOpenListSize() {
+        return openListSize;
+    }
+
+    @Override
+    public long getVisitedSetSize() {
+        return visitedSetSize;
+    }
+
+    @Override
+    public String getLastSearch() {
+        return lastSearch;
+    }
+
+    @Override
+    public long getHeapUsed() {
+        return SearchContext.usedHeap();
+    }
+
+    @Override
+    public long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    @Override
+    public long getGcTimeMillis() {
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            time += Math.max(gc.getCollectionTime(), 0);
+        }
+        return time;
+    }
+
+    @Override
+    public synchronized double getGcTimePercent() {
+        long gcTime = getGcTimeMillis();
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        double percent = uptime > lastUptime ? 100.0 * (gcTime - lastGcTime) / (uptime - lastUptime) : 0;
+        lastGcTime = gcTime;
+        lastUptime = uptime;
+        return percent;
+    }
+}
@@ -0,0 +1,69 @@
+package com.classes;
+
+/**
+ * Management interface for SolverMetrics, so a running solver can be watched from JConsole or any JMX client.
+ */
+public interface SolverMetricsMBean {
+
+    /**
+     * Returns the number of solves running right now.
+     */
+    int getActiveSolves();
+
+    /**
+     * Returns the number of solves finished since the MBean was registered.
+     */
+    long getSolvesCompleted();
+
+    /**
+     * Returns the nodes expanded by every solve since the MBean was registered.
+     */
+    long getTotalExpanded();
+
+    /**
+     * Returns the children pruned as duplicates by every solve since the MBean was registered.
+     */
+    long getTotalDuplicates();
+
+    /**
+     * Returns the expansions per second in the most recent progress sample.
+     */
+    double getExpansionsPerSecond();
+
+    /**
+     * Returns the open list size in the most recent progress sample.
+     */
+    long getOpenListSize();
+
+    /**
+     * Returns the visited set size in the most recent progress sample.
+     */
+    long getVisitedSetSize();
+
+    /**
+     * Returns the search (method and option) of the most recent progress sample.
+     */
+    String getLastSearch();
+
+    /**
+     * Returns the bytes of heap in use.
+     */
+    long getHeapUsed();
+
+    /**
+     * Returns the total number of garbage collections.
+     */
+    long getGcCount();
+
+    /**
+     * Returns the total time spent in garbage collection in milliseconds.
+     */
+    long getGcTimeMillis();
+
+    /**
+     * Returns the percentage of wall-clock time spent in garbage collection since this attribute was last read. A
+     * high value means solves are slow because of memory; a low value with a high expansion rate but little progress
+     * means the heuristic is too weak.
+     */
+    double getGcTimePercent();
+}
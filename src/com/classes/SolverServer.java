@@ -0,0 +1,375 @@
+package com.classes;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SolverServer is a long-lived solver listening on a local TCP port, so callers don't pay JVM start up for each board,
+ * and the JIT-compiled search code, goal boards and heuristic tables stay warm between solves. Requests are the same
+ * lines as batch mode (see SolveRequest), one per line, and each gets back one line of JSON once it is solved, with
+ * the request's number on its connection as "id". A client may send many requests without waiting, and results come
+ * back in finishing order.
+ *
+ * One thread runs a non-blocking NIO selector that accepts connections, splits what they send into lines and writes
+ * the results out. The solves run on a fixed pool of -Dpuzzle.threads workers (default every core) with room for
+ * -Dpuzzle.serverQueue waiting requests (default 4 per worker). A request that arrives when the queue is full is
+ * answered straight away with "error":"busy" instead of waiting. Every result has "latencyMillis", the time from
+ * reading the request to answering it, and "millis", the part spent solving. A client that only shuts down its
+ * sending side still gets the results of what it sent, but once its socket fails, its solves still running are
+ * cancelled.
+ *
+ * Usage: java com.classes.Main --serve [port] [time limit per request in ms]
+ */
+class SolverServer {
+
+    /* Global Variables: */
+    private static final int DEFAULT_PORT = 7415;
+    private static final int QUEUE_SIZE = Integer.getInteger("puzzle.serverQueue", Main.THREADS * 4);
+    private static final int MAX_LINE_BYTES = 1024;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final ThreadPoolExecutor workers;
+    private final long timeLimit;
+    private final Queue<Connection> writable = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    /**
+     * SolverServer constructor, listens on the given port of the loopback address (0 picks a free port) with the given
+     * number of workers, room for queueSize waiting requests, and the time limit per request in milliseconds (0 keeps
+     * each search method's own limit). The limit counts from when the request is read, so it includes time queued.
+     */
+    SolverServer(final int port, final int threads, final int queueSize, final long timeLimit) throws IOException {
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                                              new ArrayBlockingQueue<>(queueSize),
+                                              new ThreadPoolExecutor.AbortPolicy());
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Returns the port the server is listening on.
+     */
+    int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Runs the selector loop until close is called.
+     */
+    void run() throws IOException {
+        try {
+            while (running) {
+                selector.select();
+                for (Connection connection = writable.poll(); connection != null; connection = writable.poll()) {
+                    if (connection.key.isValid()) {
+                        connection.key.interestOps(connection.key.interestOps() | SelectionKey.OP_WRITE);
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) {
+                            read(connection);
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            write(connection);
+                        }
+                    } catch (IOException e) {
+                        connection.close();
+                    }
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    ((Connection) key.attachment()).close();
+                }
+            }
+            server.close();
+            selector.close();
+        }
+    }
+
+    /**
+     * Stops the selector loop, cancels the solves still running and closes every connection.
+     */
+    void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * Accepts a waiting connection, if there is one.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel);
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+    }
+
+    /**
+     * Reads what the connection has sent and submits every complete line. A line longer than the buffer is answered
+     * with an error and the connection is closed.
+     */
+    private void read(final Connection connection) throws IOException {
+        if (connection.channel.read(connection.in) < 0) {
+            if (connection.in.position() > 0) {
+                // The last line had no newline, so it ends here.
+                connection.in.put((byte) '\n');
+                lines(connection, System.nanoTime());
+            }
+            connection.inputDone = true;
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+            if (connection.isDrained()) {
+                connection.close();
+            }
+            return;
+        }
+        lines(connection, System.nanoTime());
+        if (!connection.in.hasRemaining()) {
+            connection.key.interestOps(0);
+            connection.send("{\"error\":" + BatchSolver.quote("Request line is over " + MAX_LINE_BYTES + " bytes")
+                            + "}");
+            connection.closing = true;
+        }
+    }
+
+    /**
+     * Submits every complete line in the connection's buffer and keeps what is left of the last one.
+     */
+    private void lines(final Connection connection, final long received) {
+        ByteBuffer in = connection.in;
+        in.flip();
+        int start = 0;
+        for (int i = 0; i < in.limit(); i++) {
+            if (in.get(i) == '\n') {
+                int end = i > start && in.get(i - 1) == '\r' ? i - 1 : i;
+                byte[] line = new byte[end - start];
+                for (int j = 0; j < line.length; j++) {
+                    line[j] = in.get(start + j);
+                }
+                start = i + 1;
+                submit(connection, new String(line, StandardCharsets.UTF_8), received);
+            }
+        }
+        in.position(start);
+        in.compact();
+    }
+
+    /**
+     * Writes as much of the connection's waiting results as the socket takes, and stops waiting to write once they
+     * have all gone.
+     */
+    private void write(final Connection connection) throws IOException {
+        for (ByteBuffer out = connection.out.peek(); out != null; out = connection.out.peek()) {
+            connection.channel.write(out);
+            if (out.hasRemaining()) {
+                return;
+            }
+            connection.out.poll();
+        }
+        if (connection.closing || (connection.inputDone && connection.isDrained())) {
+            connection.close();
+            return;
+        }
+        int reading = connection.inputDone ? 0 : SelectionKey.OP_READ;
+        connection.key.interestOps(reading);
+        if (!connection.out.isEmpty()) {
+            // A worker added a result after the loop above, so wait for the socket again.
+            connection.key.interestOps(reading | SelectionKey.OP_WRITE);
+        }
+    }
+
+    /**
+     * Hands a request line to the workers, or answers it as busy if the queue is full. Blank lines and lines
+     * starting with # are skipped.
+     */
+    private void submit(final Connection connection, final String line, final long received) {
+        if (line.trim().isEmpty() || line.startsWith("#")) {
+            return;
+        }
+        int id = ++connection.requests;
+        long deadline = timeLimit > 0 ? System.currentTimeMillis() + timeLimit : 0;
+        connection.pending.incrementAndGet();
+        try {
+            workers.execute(() -> solveLine(connection, id, line, deadline, received));
+        } catch (RejectedExecutionException e) {
+            connection.pending.decrementAndGet();
+            connection.send("{\"id\":" + id + ",\"line\":" + BatchSolver.quote(line) + ",\"error\":\"busy\""
+                            + ",\"latencyMillis\":" + millisSince(received) + "}");
+        }
+    }
+
+    /**
+     * Solves one request line on a worker and sends back its result.
+     */
+    private void solveLine(final Connection connection, final int id, final String line, final long deadline,
+                           final long received) {
+        String json;
+        try {
+            SolveRequest request = SolveRequest.parse(line);
+            SolveResult result = request.solve(deadline, connection.token);
+            json = toJson(id, request, result, millisSince(received));
+        } catch (RuntimeException e) {
+            json = "{\"id\":" + id + ",\"line\":" + BatchSolver.quote(line) + ",\"error\":"
+                    + BatchSolver.quote(String.valueOf(e.getMessage())) + ",\"latencyMillis\":"
+                    + millisSince(received) + "}";
+        }
+        connection.finish(json);
+    }
+
+    /**
+     * Returns the result of a request as one line of JSON, with the same fields as batch mode plus the status and the
+     * latency.
+     */
+    static String toJson(final int id, final SolveRequest request, final SolveResult result, final long latency) {
+        return "{\"id\":" + id
+                + ",\"board\":" + BatchSolver.quote(request.getBoardText())
+                + ",\"method\":" + BatchSolver.quote(request.getSearchMethod())
+                + ",\"option\":" + BatchSolver.quote(request.getSearchOption())
+                + ",\"status\":\"" + result.getStatus() + "\""
+                + ",\"solved\":" + result.isSolved()
+                + ",\"depth\":" + result.getDepth()
+                + ",\"created\":" + result.getNumCreated()
+                + ",\"expanded\":" + result.getNumExpanded()
+                + ",\"maxFringe\":" + result.getMaxFringe()
+                + ",\"millis\":" + result.getElapsedMillis()
+                + ",\"latencyMillis\":" + latency
+                + (result.getPath() == null ? "" : ",\"path\":" + BatchSolver.quote(result.getPath()))
+                + (result.getSuboptimalityBound() == 0 ? "" : ",\"bound\":" + result.getSuboptimalityBound())
+                + "}";
+    }
+
+    /**
+     * Returns the whole milliseconds since the given System.nanoTime.
+     */
+    private static long millisSince(final long nanos) {
+        return (System.nanoTime() - nanos) / 1000000;
+    }
+
+    /**
+     * Server mode entry point, called by Main with its arguments (starting with --serve). Runs until the JVM is
+     * stopped.
+     */
+    static void main(final String[] args) {
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PORT;
+        long timeLimit = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        try {
+            SolverServer server = new SolverServer(port, Main.THREADS, QUEUE_SIZE, timeLimit);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close, "solver-server-shutdown"));
+            System.err.println("Listening on " + server.server.getLocalAddress() + " with " + Main.THREADS
+                               + " workers and room for " + QUEUE_SIZE + " waiting requests");
+            server.run();
+        } catch (IOException e) {
+            System.err.println("Server stopped: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Connection is one client's socket, the bytes read from it that don't make a full line yet, the results waiting
+     * to be written to it, how many of its requests are still being solved, and the token that cancels them when it
+     * goes away.
+     */
+    private final class Connection {
+
+        /* Global Variables: */
+        private final SocketChannel channel;
+        private final ByteBuffer in = ByteBuffer.allocate(MAX_LINE_BYTES);
+        private final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<>();
+        private final CancellationToken token = new CancellationToken();
+        private final AtomicInteger pending = new AtomicInteger();
+        private SelectionKey key;
+        private int requests;
+        private boolean inputDone;
+        private boolean closing;
+
+        /**
+         * Connection constructor.
+         */
+        Connection(final SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Queues one line of JSON to be written, from any thread, and wakes the selector to write it.
+         */
+        void send(final String json) {
+            if (!channel.isOpen()) {
+                return;
+            }
+            out.add(ByteBuffer.wrap((json + "\n").getBytes(StandardCharsets.UTF_8)));
+            writable.add(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Queues the result of one of the connection's requests and counts the request as done, from a worker. The
+         * result is queued before the count goes down, so whenever isDrained sees nothing pending it also sees the
+         * result waiting to be written.
+         */
+        void finish(final String json) {
+            if (channel.isOpen()) {
+                out.add(ByteBuffer.wrap((json + "\n").getBytes(StandardCharsets.UTF_8)));
+            }
+            pending.decrementAndGet();
+            writable.add(this);
+            selector.wakeup();
+        }
+
+        /**
+         * Returns whether every request has been answered and every answer written. The count is read before the
+         * queue, the reverse of the order finish changes them in, so a result can't slip between the two checks.
+         */
+        boolean isDrained() {
+            return pending.get() == 0 && out.isEmpty();
+        }
+
+        /**
+         * Cancels the connection's solves and closes it.
+         */
+        void close() {
+            token.cancel();
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // The connection is being dropped either way.
+            }
+        }
+    }
+}
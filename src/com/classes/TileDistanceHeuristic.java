@@ -0,0 +1,142 @@
+package com.classes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * TileDistanceHeuristic covers heuristics that are a sum of independent per-tile costs, such as the number of
+ * misplaced tiles (h1) or the manhattan distance (h2). The cost of every tile at every position is precomputed, so a
+ * child's value is its parent's value plus the change for the one tile that moved (and the space).
+ *
+ * The space is counted like any other tile so the values match Board.getH1 and Board.getH2, or left out so the values
+ * never overestimate. Works for boards of any shape, including those too large to pack into a long. The tables are
+ * read-only, so each goal's are built once and shared by every solve in the JVM.
+ */
+class TileDistanceHeuristic implements Heuristic {
+
+    /* Global Variables: */
+    private static final Map<Board, TileDistanceHeuristic> MISPLACED = new ConcurrentHashMap<>();
+    private static final Map<Board, TileDistanceHeuristic> MISPLACED_WITHOUT_SPACE = new ConcurrentHashMap<>();
+    private static final Map<Board, TileDistanceHeuristic> MANHATTAN = new ConcurrentHashMap<>();
+    private static final Map<Board, TileDistanceHeuristic> MANHATTAN_WITHOUT_SPACE = new ConcurrentHashMap<>();
+
+    private final int cells;
+    private final int[][] distance;
+
+    /**
+     * TileDistanceHeuristic constructor, takes the cost of each tile (first index) at each position (second index).
+     */
+    private TileDistanceHeuristic(final int[][] distance) {
+        this.cells = distance.length;
+        this.distance = distance;
+    }
+
+    /**
+     * Returns the misplaced tiles heuristic (h1) for the given goal.
+     */
+    static TileDistanceHeuristic misplacedTiles(final Board goal) {
+        return misplacedTiles(goal, true);
+    }
+
+    /**
+     * Returns the misplaced tiles heuristic for the given goal, with or without counting a misplaced space. Without it
+     * the value never overestimates.
+     */
+    static TileDistanceHeuristic misplacedTiles(final Board goal, final boolean countSpace) {
+        return (countSpace ? MISPLACED : MISPLACED_WITHOUT_SPACE).computeIfAbsent(
+                goal, key -> buildMisplacedTiles(key, countSpace));
+    }
+
+    /**
+     * Builds the misplaced tiles table for the given goal, with or without counting a misplaced space. Nothing is kept,
+     * so it suits a target that is only used once, such as the initial board a backward search heads for.
+     */
+    static TileDistanceHeuristic buildMisplacedTiles(final Board goal, final boolean countSpace) {
+        int cells = goal.getShape().getCells();
+        int[][] distance = new int[cells][cells];
+        for (int pos = 0; pos < cells; pos++) {
+            int goalTile = goal.getTile(pos);
+            for (int tile = 0; tile < cells; tile++) {
+                distance[tile][pos] = tile == goalTile || (tile == 0 && !countSpace) ? 0 : 1;
+            }
+        }
+        return new TileDistanceHeuristic(distance);
+    }
+
+    /**
+     * Returns the manhattan distance heuristic (h2) for the given goal.
+     */
+    static TileDistanceHeuristic manhattanDistance(final Board goal) {
+        return manhattanDistance(goal, true);
+    }
+
+    /**
+     * Returns the manhattan distance heuristic for the given goal, with or without the space's own distance. Without
+     * it the value never overestimates, so it can be built on by other heuristics.
+     */
+    static TileDistanceHeuristic manhattanDistance(final Board goal, final boolean countSpace) {
+        return (countSpace ? MANHATTAN : MANHATTAN_WITHOUT_SPACE).computeIfAbsent(
+                goal, key -> buildManhattanDistance(key, countSpace));
+    }
+
+    /**
+     * Builds the manhattan distance table for the given goal, with or without the space's own distance. Nothing is
+     * kept, as with buildMisplacedTiles.
+     */
+    static TileDistanceHeuristic buildManhattanDistance(final Board goal, final boolean countSpace) {
+        BoardShape shape = goal.getShape();
+        int[][] distance = new int[shape.getCells()][shape.getCells()];
+        for (int goalPos = 0; goalPos < shape.getCells(); goalPos++) {
+            int tile = goal.getTile(goalPos);
+            if (tile != 0 || countSpace) {
+                for (int pos = 0; pos < shape.getCells(); pos++) {
+                    distance[tile][pos] = shape.distance(pos, goalPos);
+                }
+            }
+        }
+        return new TileDistanceHeuristic(distance);
+    }
+
+    /**
+     * Returns the sum of every tile's cost on the given board.
+     */
+    @Override
+    public int evaluate(final long tiles) {
+        int total = 0;
+        for (int pos = 0; pos < cells; pos++) {
+            total += distance[Board.tileAt(tiles, pos)][pos];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the sum of every tile's cost on the given board, which may be too large to pack into a long.
+     */
+    @Override
+    public int evaluate(final Board board) {
+        int total = 0;
+        for (int pos = 0; pos < cells; pos++) {
+            total += distance[board.getTile(pos)][pos];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the child's value from the parent's value. The only tile that moved is the one at the child's space
+     * index, which slid into the parent's space.
+     */
+    @Override
+    public int evaluateChild(final int parentValue, final long parentTiles, final int parentSpace,
+                             final int childSpace) {
+        return parentValue + delta(Board.tileAt(parentTiles, childSpace), childSpace, parentSpace);
+    }
+
+    /**
+     * Returns the change in value when the given tile slides from one position into the space at another.
+     */
+    int delta(final int tile, final int from, final int to) {
+        int[] tileCost = distance[tile];
+        int[] spaceCost = distance[0];
+        return tileCost[to] - tileCost[from] + spaceCost[from] - spaceCost[to];
+    }
+}
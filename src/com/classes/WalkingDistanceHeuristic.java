@@ -0,0 +1,159 @@
+package com.classes;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * WalkingDistanceHeuristic (wd or h5) is Takahashi's walking distance. Looking only at rows, a board is summed up as
+ * how many tiles of each goal row are in each row, and a move up or down swaps the space with one tile of some goal
+ * row in the next row. The fewest such moves from a board's summary to the goal's summary never overestimates the up
+ * and down moves needed, and the same on columns counts the sideways moves, so their sum is a lower bound. It counts
+ * tiles that block each other in a line, as linear conflicts do, and more besides.
+ *
+ * The summaries are few (24,964 for 4x4), so every one's distance is worked out once by a breadth-first search from
+ * the goal's summary and kept in a read-only table shared by every search and thread. A summary is packed as one
+ * count per 4 bits, and each tile at each cell adds a fixed amount to it, so a board's value is one pass over its
+ * cells and two table lookups. Only shapes with at most 4 rows and 4 columns are covered.
+ */
+class WalkingDistanceHeuristic implements Heuristic {
+
+    /* Global Variables: */
+    private static final int MAX_LINES = 4;
+    private static final Map<String, LongIntHashMap> TABLES = new HashMap<>();
+
+    private final int cells;
+    private final long[][] rowCounts;
+    private final long[][] colCounts;
+    private final LongIntHashMap rowTable;
+    private final LongIntHashMap colTable;
+
+    /**
+     * WalkingDistanceHeuristic constructor, works out what each tile at each cell adds to the row and column summaries
+     * and finds (or builds) their tables.
+     */
+    private WalkingDistanceHeuristic(final Board goal) {
+        BoardShape shape = goal.getShape();
+        this.cells = shape.getCells();
+        int[] goalPositions = goal.getPositions();
+        rowCounts = new long[cells][cells];
+        colCounts = new long[cells][cells];
+        for (int pos = 0; pos < cells; pos++) {
+            for (int tile = 1; tile < cells; tile++) {
+                int goalPos = goalPositions[tile];
+                rowCounts[pos][tile] = 1L << ((shape.rowOf(pos) * shape.getRows() + shape.rowOf(goalPos)) << 2);
+                colCounts[pos][tile] = 1L << ((shape.colOf(pos) * shape.getCols() + shape.colOf(goalPos)) << 2);
+            }
+        }
+        rowTable = tableFor(shape.getRows(), shape.getCols(), summary(goal.getTiles(), rowCounts));
+        colTable = tableFor(shape.getCols(), shape.getRows(), summary(goal.getTiles(), colCounts));
+    }
+
+    /**
+     * Returns the heuristic for the given goal. Throws an IllegalArgumentException if the goal's shape has more than 4
+     * rows or columns.
+     */
+    static WalkingDistanceHeuristic forGoal(final Board goal) {
+        BoardShape shape = goal.getShape();
+        if (shape.getRows() > MAX_LINES || shape.getCols() > MAX_LINES) {
+            throw new IllegalArgumentException("Walking distance (wd) only covers boards up to 4x4, not " + shape);
+        }
+        return new WalkingDistanceHeuristic(goal);
+    }
+
+    /**
+     * Returns the row walking distance plus the column walking distance.
+     */
+    @Override
+    public int evaluate(final long tiles) {
+        long rows = 0L;
+        long cols = 0L;
+        for (int pos = 0; pos < cells; pos++) {
+            int tile = Board.tileAt(tiles, pos);
+            rows += rowCounts[pos][tile];
+            cols += colCounts[pos][tile];
+        }
+        return rowTable.get(rows, 0) + colTable.get(cols, 0);
+    }
+
+    /**
+     * Returns the packed summary of the given board with the given per-cell counts.
+     */
+    private static long summary(final long tiles, final long[][] counts) {
+        long summary = 0L;
+        for (int pos = 0; pos < counts.length; pos++) {
+            summary += counts[pos][Board.tileAt(tiles, pos)];
+        }
+        return summary;
+    }
+
+    /**
+     * Returns the table of distances to the goal summary for the given number of lines of the given length, building
+     * it on first use.
+     */
+    private static synchronized LongIntHashMap tableFor(final int lines, final int length, final long goalSummary) {
+        String key = lines + "x" + length + ":" + Long.toHexString(goalSummary);
+        LongIntHashMap table = TABLES.get(key);
+        if (table == null) {
+            table = build(lines, length, goalSummary);
+            TABLES.put(key, table);
+        }
+        return table;
+    }
+
+    /**
+     * Builds the table with a breadth-first search from the goal summary. The line with the space is the one holding
+     * one tile fewer than its length, and each move takes one tile from the line above or below into it.
+     */
+    private static LongIntHashMap build(final int lines, final int length, final long goalSummary) {
+        LongIntHashMap distances = new LongIntHashMap();
+        long[] queue = new long[1024];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = goalSummary;
+        distances.put(goalSummary, 0);
+
+        while (head < tail) {
+            long summary = queue[head++];
+            int distance = distances.get(summary, 0);
+            int spaceLine = 0;
+            for (int line = 0; line < lines; line++) {
+                int held = 0;
+                for (int goalLine = 0; goalLine < lines; goalLine++) {
+                    held += count(summary, lines, line, goalLine);
+                }
+                if (held < length) {
+                    spaceLine = line;
+                }
+            }
+
+            for (int from = spaceLine - 1; from <= spaceLine + 1; from += 2) {
+                if (from < 0 || from >= lines) {
+                    continue;
+                }
+                for (int goalLine = 0; goalLine < lines; goalLine++) {
+                    if (count(summary, lines, from, goalLine) == 0) {
+                        continue;
+                    }
+                    long next = summary - (1L << ((from * lines + goalLine) << 2))
+                            + (1L << ((spaceLine * lines + goalLine) << 2));
+                    if (distances.get(next, -1) < 0) {
+                        distances.put(next, distance + 1);
+                        if (tail == queue.length) {
+                            queue = Arrays.copyOf(queue, tail << 1);
+                        }
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Returns how many tiles of the given goal line are in the given line of a packed summary.
+     */
+    private static int count(final long summary, final int lines, final int line, final int goalLine) {
+        return (int) ((summary >>> ((line * lines + goalLine) << 2)) & 0xF);
+    }
+}
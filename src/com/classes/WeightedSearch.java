@@ -0,0 +1,279 @@
+package com.classes;
+
+import java.util.Arrays;
+
+/**
+ * WeightedSearch holds weighted A* and Anytime Repairing A* (ARA*, Likhachev et al., 2003), which trade solution length
+ * for speed. Both order the open list by g + w * h for a weight w of at least 1. The larger the weight, the more the
+ * search trusts the heuristic and the fewer nodes it expands. With a heuristic that never overestimates (lc, wd or
+ * h3) the solution it finds is never more than w times longer than the shortest one; h1 and h2 count the space, so
+ * with them no bound is known and none is reported.
+ *
+ * Weighted A* stops at its first solution. ARA* then lowers the weight and repairs the search instead of starting
+ * over: boards that got shorter ways to them after they were expanded are kept aside and put back in the open list
+ * for the next pass, and every pass ends with a solution at least as short as the last. It stops when the weight gets
+ * down to 1 or the time runs out, and reports the bound the last solution is known to be within.
+ *
+ * The search option is "<weight>" or "<heuristic>:<weight>" (e.g. "h3:2.5"); the weight defaults to 2, and the
+ * heuristic to walking distance (wd) on boards up to 4x4 and h2 without the space on larger ones.
+ * Weights are kept in hundredths so the open list (a HeapOpenList, as the values no longer fit in buckets) compares
+ * ints.
+ */
+class WeightedSearch {
+
+    /* Global Variables: */
+    private static final int SCALE = 100;
+    private static final int DEFAULT_WEIGHT = 2 * SCALE;
+    private static final int WEIGHT_STEP = SCALE / 2;
+
+    private final Board goal;
+    private final BoardShape shape;
+    private final Heuristic heuristic;
+    private final boolean bounded;
+    private final SearchContext context;
+    private final NodeArena arena = new NodeArena();
+    private final LongIntHashMap bestDepths = new LongIntHashMap();
+    private LongHashSet closed;
+    private int[] inconsistent = new int[64];
+    private int inconsistentSize;
+    private int goalNode = NodeArena.NO_PARENT;
+
+    /**
+     * WeightedSearch constructor, takes the goal, the heuristic, whether it never overestimates (so the solutions
+     * have a known bound) and the context of the solve.
+     */
+    private WeightedSearch(final Board goal, final Heuristic heuristic, final boolean bounded,
+                           final SearchContext context) {
+        this.goal = goal;
+        this.shape = goal.getShape();
+        this.heuristic = heuristic;
+        this.bounded = bounded;
+        this.context = context;
+    }
+
+    /**
+     * Returns the search for the heuristic named in the search option, or the default admissible one if none is.
+     */
+    private static WeightedSearch forOption(final Board goal, final String option, final SearchContext context) {
+        String name = heuristicOf(option);
+        if (name.isEmpty()) {
+            return new WeightedSearch(goal, Heuristic.admissibleForName(name, goal), true, context);
+        }
+        return new WeightedSearch(goal, Heuristic.forName(name, goal), Heuristic.isAdmissible(name), context);
+    }
+
+    /**
+     * Weighted A*: one search with the open list ordered by g + w * h, stopping at the first solution, which (with an
+     * admissible heuristic) is at most w times longer than the shortest.
+     */
+    static void weightedAStar(final Board initial, final Board goal, final String option,
+                              final SearchContext context) {
+        context.start(60000, false);
+        int weight = weightOf(option);
+        WeightedSearch search = forOption(goal, option, context);
+        HeapOpenList open = search.start(initial, weight);
+        if (search.improvePath(open) && search.goalNode != NodeArena.NO_PARENT) {
+            search.record((double) weight / SCALE);
+        }
+    }
+
+    /**
+     * Anytime Repairing A*: weighted A* passes with the weight lowered by 0.5 (and never above the last pass's bound)
+     * after each solution, until the weight is 1 or the time runs out. The context always holds the best solution
+     * found so far and (with an admissible heuristic) the bound it is known to be within.
+     */
+    static void anytimeRepairingAStar(final Board initial, final Board goal, final String option,
+                                      final SearchContext context) {
+        context.start(60000, false);
+        int weight = weightOf(option);
+        WeightedSearch search = forOption(goal, option, context);
+        HeapOpenList open = search.start(initial, weight);
+        while (search.improvePath(open)) {
+            if (search.goalNode == NodeArena.NO_PARENT) {
+                return;
+            }
+            int[] waiting = search.drain(open);
+            double bound = Math.min((double) weight / SCALE, search.boundOf(waiting));
+            search.record(bound);
+            if (weight == SCALE || bound <= 1) {
+                return;
+            }
+            weight = Math.max(SCALE, Math.min(weight - WEIGHT_STEP, (int) Math.ceil(bound * SCALE)));
+            open = search.reopen(waiting, weight);
+        }
+    }
+
+    /**
+     * Adds the root and returns the first open list for the given weight.
+     */
+    private HeapOpenList start(final Board initial, final int weight) {
+        closed = new LongHashSet(0, false);
+        HeapOpenList open = new HeapOpenList(arena, SCALE, weight);
+        int root = arena.addRoot(initial.getTiles(), heuristic.evaluate(initial));
+        open.add(root);
+        bestDepths.put(initial.getTiles(), 0);
+        if (initial.getTiles() == goal.getTiles()) {
+            goalNode = root;
+        }
+        return open;
+    }
+
+    /**
+     * One pass: expands nodes until the goal's value is no more than the smallest value in the open list. A board
+     * that gets a shorter way to it after it was expanded isn't expanded again in this pass, only kept aside for the
+     * next one. Returns false if the time ran out first.
+     */
+    private boolean improvePath(final HeapOpenList open) {
+        while (true) {
+            int node = peekLive(open);
+            if (node == NodeArena.NO_PARENT
+                    || (goalNode != NodeArena.NO_PARENT && open.valueOf(goalNode) <= open.valueOf(node))) {
+                return true;
+            }
+            if (context.shouldStop()) {
+                return false;
+            }
+            context.updateFringe(open.size() + inconsistentSize);
+            open.remove();
+            long tiles = arena.getState(node);
+            int depth = arena.getDepth(node);
+            int nodeH = arena.getHeuristic(node);
+            context.addExpanded();
+            closed.add(tiles);
+
+            int space = Board.spaceIndexOf(tiles);
+            Board.Move[] moves = shape.movesFrom(space);
+            int[] targets = shape.targetsFrom(space);
+            for (int m = 0; m < moves.length; m++) {
+                Board.Move move = moves[m];
+                int target = targets[m];
+                if (arena.undoesLastMove(node, move)) {
+                    continue;
+                }
+                long child = Board.swapWithSpace(tiles, space, target);
+                if (depth + 1 >= bestDepths.get(child, Integer.MAX_VALUE)) {
+                    context.addDuplicate();
+                    continue;
+                }
+                bestDepths.put(child, depth + 1);
+                int childH = heuristic.evaluateChild(nodeH, tiles, space, target);
+                int childNode = arena.add(child, node, depth + 1, childH, move);
+                context.addCreated();
+                if (child == goal.getTiles()) {
+                    goalNode = childNode;
+                }
+                if (closed.contains(child)) {
+                    if (inconsistentSize == inconsistent.length) {
+                        inconsistent = Arrays.copyOf(inconsistent, inconsistentSize << 1);
+                    }
+                    inconsistent[inconsistentSize++] = childNode;
+                } else {
+                    open.add(childNode);
+                }
+            }
+            context.updateVisited(bestDepths.size());
+        }
+    }
+
+    /**
+     * Returns the open list's best node, first dropping nodes whose board has since been reached in fewer moves, or
+     * NO_PARENT if the open list is empty.
+     */
+    private int peekLive(final OpenList open) {
+        while (!open.isEmpty()) {
+            int node = open.peek();
+            if (arena.getDepth(node) <= bestDepths.get(arena.getState(node), Integer.MAX_VALUE)) {
+                return node;
+            }
+            open.remove();
+        }
+        return NodeArena.NO_PARENT;
+    }
+
+    /**
+     * Empties the open list and the nodes kept aside, and returns every one of them whose board hasn't since been
+     * reached in fewer moves.
+     */
+    private int[] drain(final HeapOpenList open) {
+        int[] waiting = new int[open.size() + inconsistentSize];
+        int size = 0;
+        while (!open.isEmpty()) {
+            waiting[size++] = open.remove();
+        }
+        System.arraycopy(inconsistent, 0, waiting, size, inconsistentSize);
+        size += inconsistentSize;
+        inconsistentSize = 0;
+
+        int live = 0;
+        for (int i = 0; i < size; i++) {
+            int node = waiting[i];
+            if (arena.getDepth(node) <= bestDepths.get(arena.getState(node), Integer.MAX_VALUE)) {
+                waiting[live++] = node;
+            }
+        }
+        return Arrays.copyOf(waiting, live);
+    }
+
+    /**
+     * Returns the solution's length over the smallest g + h of the waiting nodes, which no shorter solution can be
+     * under. Returns 1 if none are waiting, since then no shorter solution is left.
+     */
+    private double boundOf(final int[] waiting) {
+        int minF = Integer.MAX_VALUE;
+        for (int node : waiting) {
+            minF = Math.min(minF, arena.getDepth(node) + arena.getHeuristic(node));
+        }
+        int length = arena.getDepth(goalNode);
+        return minF >= length ? 1 : (double) length / minF;
+    }
+
+    /**
+     * Returns the open list for the next pass with the given weight, holding the waiting nodes, and starts the pass
+     * with nothing expanded.
+     */
+    private HeapOpenList reopen(final int[] waiting, final int weight) {
+        HeapOpenList next = new HeapOpenList(arena, SCALE, weight);
+        for (int node : waiting) {
+            next.add(node);
+        }
+        closed = new LongHashSet(0, false);
+        return next;
+    }
+
+    /**
+     * Records the goal's current solution and, if the heuristic never overestimates, the bound it is within, rounded
+     * up to three decimals.
+     */
+    private void record(final double bound) {
+        context.solved(arena.getDepth(goalNode));
+        context.setPath(arena.getPath(goalNode));
+        if (bounded) {
+            context.setSuboptimalityBound(Math.ceil(bound * 1000) / 1000);
+        }
+    }
+
+    /**
+     * Returns the weight in the search option in hundredths. Throws an IllegalArgumentException if it is under 1.
+     */
+    private static int weightOf(final String option) {
+        int colon = option.indexOf(':');
+        String weight = colon >= 0 ? option.substring(colon + 1) : option;
+        if (weight.isEmpty() || !Character.isDigit(weight.charAt(0))) {
+            return DEFAULT_WEIGHT;
+        }
+        int hundredths = (int) Math.round(Double.parseDouble(weight) * SCALE);
+        if (hundredths < SCALE) {
+            throw new IllegalArgumentException("The weight must be at least 1: " + option);
+        }
+        return hundredths;
+    }
+
+    /**
+     * Returns the heuristic name in a "<heuristic>:<number>" search option, or "" if only a number was given.
+     */
+    static String heuristicOf(final String option) {
+        int colon = option.indexOf(':');
+        String name = colon >= 0 ? option.substring(0, colon) : option;
+        return name.isEmpty() || Character.isDigit(name.charAt(0)) ? "" : name;
+    }
+}
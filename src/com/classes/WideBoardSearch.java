@@ -0,0 +1,112 @@
+package com.classes;
+
+import java.util.Arrays;
+
+/**
+ * WideBoardSearch solves boards of over 16 cells, which don't pack into a single long. Without a long to hash, there
+ * is no visited set or open list, so the only search offered is IDA*, which keeps nothing but the current path.
+ *
+ * The board is one array of words (8 bits a cell) that every move changes in place and then changes back on the way
+ * up, so nothing is allocated per node. The heuristic must be a sum of per-tile costs (h1 or h2) so each child's value
+ * comes from its parent's with a single lookup.
+ */
+class WideBoardSearch {
+
+    /* Global Variables: */
+    private static final int FOUND = -1;
+    private static final int TIMED_OUT = Integer.MIN_VALUE;
+
+    /**
+     * WideBoardSearch is only a holder for its static search methods.
+     */
+    private WideBoardSearch() {
+    }
+
+    /**
+     * Iterative deepening A* for boards of over 16 cells: repeated depth-first searches that cut off at an f-value
+     * bound, raising the bound each time to the smallest f-value that was cut off. Throws an IllegalArgumentException
+     * if the heuristic isn't h1 or h2.
+     */
+    static void iterativeDeepeningAStar(final Board initial, final Board goal, final String heuristic,
+                                        final SearchContext context) {
+        Heuristic named = Heuristic.forName(heuristic, goal);
+        if (!(named instanceof TileDistanceHeuristic)) {
+            throw new IllegalArgumentException(initial.getShape() + " boards can only use h1 or h2");
+        }
+        TileDistanceHeuristic h = (TileDistanceHeuristic) named;
+        context.start(60000, false);
+        int rootH = h.evaluate(initial);
+        long[] words = initial.getWords();
+        long[] goalWords = goal.getWords();
+
+        int bound = rootH;
+        while (bound != Integer.MAX_VALUE) {
+            Board.Move[] path = new Board.Move[bound + 1];
+            int result = boundedSearch(words, initial.getSpaceIndex(), 0, rootH, bound, null, path, goalWords,
+                                       initial.getShape(), h, context);
+            if (result == TIMED_OUT) {
+                break;
+            }
+            if (result < 0) {
+                context.solved(FOUND - result);
+                StringBuilder moves = new StringBuilder(FOUND - result);
+                for (int i = 0; i < FOUND - result; i++) {
+                    moves.append(path[i]);
+                }
+                context.setPath(moves.toString());
+                break;
+            }
+            bound = result;
+        }
+    }
+
+    /**
+     * One depth-first iteration of IDA* below the board in words, which is changed for each child and restored before
+     * returning. The board can only be the goal when the heuristic is 0, so the words are only compared then.
+     *
+     * Returns the smallest f-value over the bound that was cut off (Integer.MAX_VALUE if none), TIMED_OUT, or
+     * FOUND - depth when the goal was reached at that depth.
+     */
+    private static int boundedSearch(final long[] words, final int space, final int depth, final int hValue,
+                                     final int bound, final Board.Move lastMove, final Board.Move[] path,
+                                     final long[] goal, final BoardShape shape, final TileDistanceHeuristic h,
+                                     final SearchContext context) {
+        int f = depth + hValue;
+        if (f > bound) {
+            return f;
+        }
+        context.addExpanded();
+        context.updateFringe(depth + 1);
+        context.updateVisited(depth + 1);
+        if (hValue == 0 && Arrays.equals(words, goal)) {
+            return FOUND - depth;
+        }
+        if (context.shouldStop()) {
+            return TIMED_OUT;
+        }
+
+        int min = Integer.MAX_VALUE;
+        Board.Move[] moves = shape.movesFrom(space);
+        int[] targets = shape.targetsFrom(space);
+        for (int m = 0; m < moves.length; m++) {
+            Board.Move move = moves[m];
+            if (lastMove != null && move == lastMove.opposite()) {
+                continue;
+            }
+            int target = targets[m];
+            context.addCreated();
+            int childH = hValue + h.delta(Board.tileAt(words, target), target, space);
+            Board.swapWithSpace(words, space, target);
+            path[depth] = move;
+            int result = boundedSearch(words, target, depth + 1, childH, bound, move, path, goal, shape, h, context);
+            Board.swapWithSpace(words, target, space);
+            if (result < 0) {
+                return result;
+            }
+            if (result < min) {
+                min = result;
+            }
+        }
+        return min;
+    }
+}
@@ -0,0 +1,44 @@
+package com.classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * BeamSearchTest checks that beam-stack search with an admissible heuristic finds solutions as short as A*'s, on
+ * boards small enough that narrow beams have to backtrack many times.
+ */
+class BeamSearchTest {
+
+    /* Global Variables: */
+    private static final String[] BOARDS = {
+            "3x3:13624758 ", "3x3:26 134587", "3x3:26534178 ", "3x3:7415 2863",
+            "2x4:5374261 ", "2x4:34 17562", "2x4: 3471526"
+    };
+    private static final int[] WIDTHS = {3, 5};
+
+    /**
+     * Beam-stack search with lc returns the same number of moves as A* with lc, for several beam widths.
+     */
+    @Test
+    void beamStackMatchesAStar() {
+        for (String text : BOARDS) {
+            Board board = SolveRequest.parseBoard(text);
+            int shortest = depthOf(board, "AStar", "lc");
+            for (int width : WIDTHS) {
+                assertEquals(shortest, depthOf(board, "BeamStack", "lc:" + width), text + " with width " + width);
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the solution the given search finds for the board, failing if it finds none.
+     */
+    private static int depthOf(final Board board, final String method, final String option) {
+        SearchContext context = new SearchContext();
+        Main.solve(board, method, option, context);
+        assertTrue(context.isSolutionFound(), method + " " + option + " found no solution");
+        return context.getDepth();
+    }
+}
@@ -0,0 +1,36 @@
+package com.classes;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * SearchContextTest checks that every search method records its statistics in the context, whether it uses the
+ * context's visited set, keeps its own or runs on worker threads.
+ */
+class SearchContextTest {
+
+    /* Global Variables: */
+    private static final String BOARD = "3x3:26 134587";
+    private static final String[][] METHODS = {
+            {"BFS", ""}, {"ParBFS", ""}, {"DLS", "30"}, {"GBFS", "h2"}, {"AStar", "lc"}, {"WAStar", "2:lc"},
+            {"ARAStar", "3:lc"}, {"Beam", "lc:5"}, {"BeamStack", "lc:5"}, {"HDAStar", "lc"}, {"BiBFS", ""},
+            {"MM", "lc"}, {"IDAStar", "lc"}
+    };
+
+    /**
+     * Each search reports the nodes it expanded and the boards it holds as visited once it has solved the board.
+     */
+    @Test
+    void everySearchCountsExpandedAndVisited() {
+        Board board = SolveRequest.parseBoard(BOARD);
+        for (String[] method : METHODS) {
+            SearchContext context = new SearchContext();
+            Main.solve(board, method[0], method[1], context);
+            String name = method[0] + " " + method[1];
+            assertTrue(context.isSolutionFound(), name + " found no solution");
+            assertTrue(context.getNumExpanded() > 0, name + " counted no expansions");
+            assertTrue(context.getNumVisited() > 0, name + " counted no visited boards");
+        }
+    }
+}